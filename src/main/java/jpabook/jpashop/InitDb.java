@@ -1,6 +1,8 @@
 package jpabook.jpashop;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderSummaryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,11 +25,15 @@ import javax.persistence.EntityManager;
 public class InitDb {
 
     private final InitService initService;
+    private final OrderSummaryService orderSummaryService;
+    private final MemberService memberService;
 
     @PostConstruct
     public void init() {
         initService.dbInit1();
         initService.dbInit2();
+        orderSummaryService.rebuild(); // 샘플 주문은 OrderService를 거치지 않으므로 주문 요약 재구성
+        memberService.reconcileOrderStats(); // 회원별 주문 통계도 재구성
     }
 
     @Component
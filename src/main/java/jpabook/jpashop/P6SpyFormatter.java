@@ -1,7 +1,10 @@
 package jpabook.jpashop;
 
 import com.p6spy.engine.common.ConnectionInformation;
-import com.p6spy.engine.event.JdbcEventListener;
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
 import com.p6spy.engine.spy.P6SpyOptions;
 import com.p6spy.engine.spy.appender.MessageFormattingStrategy;
 import org.hibernate.engine.jdbc.internal.FormatStyle;
@@ -10,14 +13,67 @@ import org.springframework.util.StringUtils;
 
 import java.sql.SQLException;
 
+/**
+ * p6spy 쿼리 로그 포맷터 + 요청 단위 SQL 통계 수집 <br/>
+ * JDBC 이벤트마다 현재 요청의 SqlStatistics에 statement 수, 실행 시간, row 수를 누적한다.
+ */
 @Component  // 1
-public class P6SpyFormatter extends JdbcEventListener implements MessageFormattingStrategy {
+public class P6SpyFormatter extends SimpleJdbcEventListener implements MessageFormattingStrategy {
 
     @Override // 2
     public void onAfterGetConnection(ConnectionInformation connectionInformation, SQLException e) {
         P6SpyOptions.getActiveInstance().setLogMessageFormat(getClass().getName());
     }
 
+    /**
+     * execute / executeQuery / executeUpdate / executeBatch 공통 - statement 수, 실행 시간 집계
+     */
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatistics.recordStatement(timeElapsedNanos);
+    }
+
+    /**
+     * 변경된 row 수 집계 (PreparedStatement)
+     */
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, rowCount, e);
+        SqlStatistics.recordRows(Math.max(rowCount, 0), 0L);
+    }
+
+    /**
+     * 변경된 row 수 집계 (Statement)
+     */
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, sql, rowCount, e);
+        SqlStatistics.recordRows(Math.max(rowCount, 0), 0L);
+    }
+
+    /**
+     * 변경된 row 수 집계 (batch) - 드라이버가 건수를 모르면 음수(SUCCESS_NO_INFO)를 반환하므로 제외
+     */
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        super.onAfterExecuteBatch(statementInformation, timeElapsedNanos, updateCounts, e);
+        long rows = 0;
+        if (updateCounts != null) {
+            for (int updateCount : updateCounts) {
+                rows += Math.max(updateCount, 0);
+            }
+        }
+        SqlStatistics.recordRows(rows, 0L);
+    }
+
+    /**
+     * 읽은 row 수, ResultSet 읽기(fetch) 시간 집계
+     */
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        SqlStatistics.recordRows(hasNext ? 1 : 0, timeElapsedNanos);
+    }
+
     @Override // 3
     public String formatMessage(int connectionId, String now, long elapsed, String category, String prepared, String sql, String url) {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,117 @@
+package jpabook.jpashop;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * [요청 단위 SQL 통계] <br/>
+ * P6SpyFormatter가 JDBC 이벤트마다 현재 스레드의 통계에 누적한다. <br/>
+ * SqlStatisticsFilter가 요청 시작시 생성하고 요청 종료시 제거한다. <br/>
+ * 요청이 다른 스레드에 맡긴 쿼리(ParallelQueryExecutor)는 propagate()로 같은 통계에 묶어서 집계한다. <br/>
+ * - statementCount : 실행한 statement 수 (batch 실행은 1회) <br/>
+ * - elapsedNanos : statement 실행 + ResultSet 읽기 시간 합계 (동시 실행된 쿼리도 합산) <br/>
+ * - rowCount : 읽은 row 수 + 변경된 row 수
+ */
+public class SqlStatistics {
+
+    public static final String COUNT_HEADER = "X-Sql-Count";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statementCount = new AtomicInteger(); // 작업 스레드에서도 누적되므로 atomic
+    private final AtomicLong elapsedNanos = new AtomicLong();
+    private final AtomicLong rowCount = new AtomicLong();
+
+    /**
+     * 현재 스레드에서 집계 시작
+     */
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * 현재 스레드의 통계 (집계중이 아니면 null)
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 현재 스레드에서 집계 종료
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 다른 스레드에서 실행할 작업을 현재 스레드의 통계에 묶는다. <br/>
+     * 작업이 실행되는 동안만 작업 스레드에 통계를 연결하고, 끝나면 원래 상태로 되돌린다. (집계중이 아니면 그대로 반환)
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatistics previous = CURRENT.get(); // CallerRunsPolicy : 호출 스레드에서 실행되면 자기 자신
+            CURRENT.set(statistics);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    static void recordStatement(long timeElapsedNanos) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statementCount.incrementAndGet();
+            statistics.elapsedNanos.addAndGet(timeElapsedNanos);
+        }
+    }
+
+    static void recordRows(long rows, long timeElapsedNanos) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.rowCount.addAndGet(rows);
+            statistics.elapsedNanos.addAndGet(timeElapsedNanos);
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount.get();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos.get();
+    }
+
+    public long getRowCount() {
+        return rowCount.get();
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos.get());
+    }
+
+    /**
+     * 응답 헤더로 기록 (X-Sql-Count, X-Sql-Time-Ms, X-Sql-Rows)
+     */
+    public void writeHeaders(BiConsumer<String, String> headerSetter) {
+        headerSetter.accept(COUNT_HEADER, String.valueOf(getStatementCount()));
+        headerSetter.accept(TIME_HEADER, String.valueOf(getElapsedMillis()));
+        headerSetter.accept(ROWS_HEADER, String.valueOf(getRowCount()));
+    }
+}
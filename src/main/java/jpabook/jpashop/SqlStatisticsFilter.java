@@ -0,0 +1,38 @@
+package jpabook.jpashop;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * [요청 단위 SQL 통계 필터] <br/>
+ * 요청마다 SqlStatistics를 시작/종료한다. <br/>
+ * 응답이 아직 커밋되지 않았다면(뷰 렌더링 등) 여기서 X-Sql-* 헤더를 기록하고, <br/>
+ * API 응답은 바디를 쓰면서 커밋되므로 SqlStatisticsResponseAdvice에서 바디를 쓰기 직전에 기록한다.
+ */
+@Slf4j
+@Component
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!response.isCommitted()) {
+                statistics.writeHeaders(response::setHeader);
+            }
+            log.debug("{} {} - sql count={}, time={}ms, rows={}",
+                    request.getMethod(), request.getRequestURI(),
+                    statistics.getStatementCount(), statistics.getElapsedMillis(), statistics.getRowCount());
+            SqlStatistics.clear();
+        }
+    }
+}
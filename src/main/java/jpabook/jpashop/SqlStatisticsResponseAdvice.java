@@ -0,0 +1,34 @@
+package jpabook.jpashop;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * API 응답 바디를 쓰기 직전에 현재까지의 SQL 통계를 응답 헤더로 기록한다. <br/>
+ * (메시지 컨버터가 바디를 쓰면서 응답이 커밋되므로 필터에서는 헤더를 추가할 수 없다.) <br/>
+ * SqlStatisticsFilter가 집계중인 요청(요청 스레드)에만 적용된다.
+ */
+@RestControllerAdvice
+public class SqlStatisticsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return SqlStatistics.current() != null;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.writeHeaders(response.getHeaders()::set);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,77 @@
+package jpabook.jpashop.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 2차 캐시 통계 조회 API <br/>
+ * jpashop.cache.statistics=true 일때만 등록된다. (hibernate.generate_statistics 도 함께 켜진다)
+ */
+@RestController
+@ConditionalOnProperty(name = "jpashop.cache.statistics", havingValue = "true")
+@RequiredArgsConstructor
+public class CacheApiController {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * 2차 캐시 리전별 hit/miss/put 통계
+     * @return Result : {hitCount: , missCount: , putCount: , regions: [{region: '', hitCount: , ...},,,]}
+     */
+    @GetMapping("/api/cache/stats")
+    public CacheStatsResult cacheStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<RegionStatsDto> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> new RegionStatsDto(region, statistics.getDomainDataRegionStatistics(region)))
+                .collect(Collectors.toList());
+        return new CacheStatsResult(statistics.getSecondLevelCacheHitCount(),
+                                    statistics.getSecondLevelCacheMissCount(),
+                                    statistics.getSecondLevelCachePutCount(),
+                                    regions);
+    }
+
+    /**
+     * 2차 캐시 전체 통계 반환 클래스
+     */
+    @Data
+    @AllArgsConstructor
+    static class CacheStatsResult {
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private List<RegionStatsDto> regions;
+    }
+
+    /**
+     * 리전별 통계 Dto
+     */
+    @Data
+    static class RegionStatsDto {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long elementCountInMemory;
+
+        public RegionStatsDto(String region, CacheRegionStatistics regionStatistics) {
+            this.region = region;
+            this.hitCount = regionStatistics.getHitCount();
+            this.missCount = regionStatistics.getMissCount();
+            this.putCount = regionStatistics.getPutCount();
+            this.elementCountInMemory = regionStatistics.getElementCountInMemory();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.DeliveryCompletionJob;
+import jpabook.jpashop.service.DeliveryJobResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequiredArgsConstructor
+public class DeliveryApiController {
+
+    private final DeliveryCompletionJob deliveryCompletionJob;
+
+    /**
+     * 배송완료 일괄 처리 API <br/>
+     * 조건에 맞는 배송준비 배송을 청크 단위로 배송완료로 바꾼다. 같은 조건으로 다시 호출하면 멈춘 지점부터 이어서 처리한다.
+     * @param request {"zipcode":"12345", "orderedBefore":"2024-01-01T00:00:00"} (Body - JSON, 하나 이상 필요)
+     * @return 처리 결과 (조건이 없거나 잘못된 우편번호 -> 400)
+     */
+    @PostMapping("/api/v1/deliveries/complete")
+    public DeliveryJobResult completeDeliveries(@RequestBody CompleteDeliveryRequest request) {
+        return deliveryCompletionJob.run(request.getZipcode(), request.getOrderedBefore());
+    }
+
+    /**
+     * 잘못된 요청(조건 없음, 잘못된 우편번호) -> 400 Bad Request
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    /**
+     * 배송완료 일괄 처리 API request 파라미터용 Dto
+     */
+    @Data
+    static class CompleteDeliveryRequest {
+        private String zipcode;
+        private LocalDateTime orderedBefore;
+    }
+
+    /**
+     * 오류 응답 Dto
+     */
+    @Data
+    @AllArgsConstructor
+    static class ErrorResponse {
+        private String message;
+    }
+}
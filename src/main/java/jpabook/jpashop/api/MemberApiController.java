@@ -1,21 +1,44 @@
 package jpabook.jpashop.api;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.MemberOrderStats;
 import jpabook.jpashop.form.MemberForm;
+import jpabook.jpashop.repository.MemberCursor;
+import jpabook.jpashop.repository.MemberNameView;
+import jpabook.jpashop.service.MemberImportResult;
+import jpabook.jpashop.service.MemberImportService;
+import jpabook.jpashop.service.MemberNameIndex;
 import jpabook.jpashop.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberApiController {
+    private static final int MAX_MEMBER_PAGE_SIZE = 1000; // 회원 조회 한 페이지 최대 크기
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50; // 자동완성 최대 결과 수
+
     private final MemberService memberService;
+    private final MemberImportService memberImportService;
+    private final MemberNameIndex memberNameIndex;
 
     /**
      * 등록 V1 : 요청 값으로 Member 엔티티를 직접 받는다. <br/>
@@ -46,6 +69,23 @@ public class MemberApiController {
         return new CreateMemberResponse(id);
     }
 
+    /**
+     * 회원 일괄 등록 API <br/>
+     * 요청 본문을 한 줄씩 읽어서 묶음 단위로 등록한다. (본문 전체를 메모리에 올리지 않음) <br/>
+     * text/csv : name,city,street,zipcode (첫 줄 헤더 생략 가능) <br/>
+     * application/x-ndjson : 한 줄에 {"name":"", "city":"", "street":"", "zipcode":""} 하나
+     * @return 전체/등록/실패 행 수, 초당 처리 행 수, 실패한 행 (줄 번호, 이름, 사유)
+     */
+    @PostMapping(value = "/api/v1/members/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public MemberImportResult importMembers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                           InputStream body) throws IOException {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        MemberImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType)
+                ? MemberImportService.Format.NDJSON : MemberImportService.Format.CSV;
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        return memberImportService.importMembers(new InputStreamReader(body, charset), format);
+    }
+
     /**
      * 회원 수정 API
      */
@@ -76,16 +116,25 @@ public class MemberApiController {
 
     /**
      * 회원 조회 API v2 <br/>
-     * 엔티티 -> DTO 변환
-     * @return Result<T> : {count:__ , data: [{name: ''},{name: ''},,,]}
+     * 엔티티 -> DTO 변환 <br/>
+     * 회원 엔티티 전체를 읽지 않고 id, 이름만 프로젝션으로 size 건씩 키셋 페이징한다. (응답/메모리가 페이지 크기로 제한됨) <br/>
+     * URL : http://localhost:8080/api/v2/members?size=100&cursor=
+     * @param cursor 이전 응답의 nextCursor (첫 페이지 : 생략)
+     * @param size 페이지 크기 (최대 MAX_MEMBER_PAGE_SIZE)
+     * @return SliceResult<T> : {count:__ , data: [{name: ''},{name: ''},,,], nextCursor: ''}
      */
     @GetMapping("/api/v2/members")
-    public Result membersV2() {
-        List<Member> findMembers = memberService.findMembers();
-        List<MemberDto> collect = findMembers.stream()
+    public SliceResult<List<MemberDto>> membersV2(@RequestParam(value = "cursor", required = false) String cursor,
+                                                  @RequestParam(value = "size", defaultValue = "100") int size) {
+        Long lastMemberId = StringUtils.hasText(cursor) ? MemberCursor.decode(cursor) : 0L;
+        Slice<MemberNameView> members = memberService.findMemberNames(lastMemberId, Math.max(1, Math.min(size, MAX_MEMBER_PAGE_SIZE)));
+        List<MemberDto> collect = members.stream()
                 .map(m -> new MemberDto(m.getName()))
                 .collect(Collectors.toList());
-        return new Result(collect.size(), collect);
+        String nextCursor = members.hasNext()
+                ? MemberCursor.encode(members.getContent().get(members.getNumberOfElements() - 1).getId())
+                : null;
+        return new SliceResult<>(collect.size(), collect, nextCursor);
     }
 
     /**
@@ -100,6 +149,65 @@ public class MemberApiController {
         private T data;
     }
 
+    /**
+     * 회원 이름 자동완성 API <br/>
+     * 메모리 접두어 색인(MemberNameIndex)에서 찾으므로 DB를 조회하지 않는다. (대소문자 구분 없음, 이름 순) <br/>
+     * URL : http://localhost:8080/api/v1/members/autocomplete?q=use&limit=10
+     * @param q 이름 접두어
+     * @param limit 최대 결과 수 (최대 MAX_AUTOCOMPLETE_LIMIT)
+     * @return Result<T> : {count:__ , data: [{id: , name: ''},,,]}
+     */
+    @GetMapping("/api/v1/members/autocomplete")
+    public Result<List<MemberNameIndex.Match>> autocomplete(@RequestParam("q") String q,
+                                                            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (!StringUtils.hasText(q)) {
+            return new Result<>(0, Collections.emptyList());
+        }
+        List<MemberNameIndex.Match> matches = memberNameIndex.search(q, Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT)));
+        return new Result<>(matches.size(), matches);
+    }
+
+    /**
+     * 회원별 주문 통계 조회 API <br/>
+     * 주문/취소 때 함께 갱신되는 member_order_stats 를 PK로 한번 조회한다. (회원의 주문/주문상품을 집계하지 않음) <br/>
+     * URL : http://localhost:8080/api/v1/members/1/order-stats
+     * @return {memberId: , orderCount: , totalSpend: , lastOrderDate: ''}
+     */
+    @GetMapping("/api/v1/members/{id}/order-stats")
+    public MemberOrderStatsDto orderStats(@PathVariable("id") Long id) {
+        return new MemberOrderStatsDto(memberService.findOrderStats(id));
+    }
+
+    /**
+     * 회원별 주문 통계 재구성 API - 주문 테이블로부터 전체 통계를 다시 만든다.
+     * @return {count: 재구성된 회원 통계 수}
+     */
+    @PostMapping("/api/v1/members/order-stats/reconcile")
+    public Result<Integer> reconcileOrderStats() {
+        int count = memberService.reconcileOrderStats();
+        return new Result<>(count, count);
+    }
+
+    /**
+     * 잘못된 요청(조작된 커서 등) -> 400 Bad Request
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Result<String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(new Result<>(0, e.getMessage()));
+    }
+
+    /**
+     * 페이지 반환 클래스 - 다음 페이지 커서 포함
+     * @param <T>
+     */
+    @Data
+    @AllArgsConstructor
+    static class SliceResult<T> {
+        private int count;
+        private T data;
+        private String nextCursor; // 다음 페이지 커서 (마지막 페이지 : null)
+    }
+
     /**
      * 변환할 클래스
      */
@@ -110,6 +218,24 @@ public class MemberApiController {
     }
 
 
+    /**
+     * 회원별 주문 통계 응답 Dto
+     */
+    @Data
+    static class MemberOrderStatsDto {
+        private Long memberId;
+        private int orderCount; // 취소되지 않은 주문 수
+        private long totalSpend; // 취소되지 않은 주문 금액 합계
+        private LocalDateTime lastOrderDate;
+
+        public MemberOrderStatsDto(MemberOrderStats stats) {
+            this.memberId = stats.getMemberId();
+            this.orderCount = stats.getOrderCount();
+            this.totalSpend = stats.getTotalSpend();
+            this.lastOrderDate = stats.getLastOrderDate();
+        }
+    }
+
     /**
      * 회원 수정 API request 파라미터용 Dto
      */
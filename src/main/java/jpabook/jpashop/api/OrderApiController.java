@@ -4,29 +4,46 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.*;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
-import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderFlatFolder;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.BulkCancelResult;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.OrderLine;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.order.query.OrderExportService;
 import jpabook.jpashop.service.order.query.OrderQueryService;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
 public class OrderApiController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000; // 키셋 페이징 한 페이지 최대 크기
+
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderExportService orderExportService;
+    private final OrderService orderService;
 
     /**
      * 주문 컬렉션 조회 V1 - 엔티티 직접 노출
@@ -104,6 +121,35 @@ public class OrderApiController {
         return result;
     }
 
+    /**
+     * 주문 컬렉션 조회 V3.2 - 키셋(Seek) 페이징 <br/>
+     * V3.1의 offset 대신 마지막으로 조회한 주문 이후부터 조회한다. (페이지 깊이와 무관하게 일정한 응답시간) <br/>
+     * 첫 페이지는 cursor 없이 요청하고, 이후 응답의 nextCursor를 그대로 넘긴다. (nextCursor가 null이면 마지막 페이지) <br/>
+     * orderItems는 V3.1과 동일하게 batch fetch(in 쿼리)로 조회된다. <br/>
+     * URL : http://localhost:8080/api/v3.2/orders?limit=2&sort=orderDate
+     * @param cursor 이전 응답의 nextCursor (잘못된 커서 -> 400)
+     * @param limit 페이지 크기 (1 ~ MAX_CURSOR_PAGE_SIZE)
+     * @param sort id(기본) / orderDate - 첫 페이지에서만 사용 (이후에는 cursor에 포함된 정렬 기준을 따른다.)
+     * @return
+     */
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult<List<OrderDto>> orderV3_cursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                                       @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                       @RequestParam(value = "sort", defaultValue = "id") String sort) {
+        OrderCursor orderCursor = StringUtils.hasText(cursor)
+                ? OrderCursor.decode(cursor)
+                : OrderCursor.first("orderDate".equals(sort));
+        limit = Math.max(1, Math.min(limit, MAX_CURSOR_PAGE_SIZE));
+        List<Order> orders = orderRepository.findAllWithMemberDelivery(orderCursor, limit);
+        List<OrderDto> result = orders.stream()
+                .map(order -> new OrderDto(order))
+                .collect(Collectors.toList());
+        String nextCursor = orders.isEmpty() || orders.size() < limit
+                ? null
+                : orderCursor.next(orders.get(orders.size() - 1)).encode();
+        return new CursorResult<>(result, nextCursor);
+    }
+
     /**
      * 주문 컬렉션 조회 V4 - JPA에서 DTO 직접 조회
      * new 연산자로 쿼리레벨에서 Dto 타입으로 반환한다.
@@ -122,44 +168,227 @@ public class OrderApiController {
         return orderQueryRepository.findAllByDto_Optimization();
     }
 
+    /**
+     * 주문 컬렉션 조회 V5.1 - JPQL DTO 직접 조회 (컬렉션 조회 최적화 + 동시 조회) <br/>
+     * 주문 id 범위를 알고 있으므로 주문 쿼리와 주문상품 쿼리를 별도 커넥션에서 동시에 실행한다. <br/>
+     * URL : http://localhost:8080/api/v5.1/orders?fromId=1&toId=1000 <br/>
+     * 범위가 뒤집혔거나 OrderQueryRepository.MAX_ORDER_ID_RANGE 보다 크면 400
+     * @param fromId 시작 주문 id (포함)
+     * @param toId 끝 주문 id (포함)
+     */
+    @GetMapping("/api/v5.1/orders")
+    public List<OrderQueryDto> ordersV5_concurrent(@RequestParam("fromId") Long fromId,
+                                                   @RequestParam("toId") Long toId) {
+        return orderQueryRepository.findAllByDto_Optimization(fromId, toId);
+    }
+
+    /**
+     * 주문 컬렉션 조회 V6 - JPQL DTO 직접 조회 (플랫 데이터 최적화) <br/>
+     * 쿼리는 한번이지만 조인으로 인해 주문상품 수 만큼 중복된 row를 애플리케이션에서 주문 단위로 접는다. <br/>
+     * order_id 순으로 정렬된 인접 row를 한번의 순회로 접으므로(OrderFlatFolder) <br/>
+     * 주문당 헤더 객체는 하나, 주문상품 리스트는 딱 맞는 크기로 만들어지고 DB 정렬 순서가 유지된다.
+     */
     @GetMapping("/api/v6/orders")
     public List<OrderQueryDto> ordersV6() {
         List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
-        // ^ OrderFlatDto 타입으로 전체 조인 결과 조회
-        return flats.stream()
-                .collect(Collectors.groupingBy( //(OrderQueryDto, List<OrderItemQueryDto>) 그룹핑 -> @EqualsHashCode(of="orderId)" 기준으로 매핑 되므로 중복이 제거된다.
-                        // Map<OrderQueryDto, List<OrderFlatDto>>
-                        // OrderFlatDto를 OrderQueryDto로 매핑하고 [Key]로 사용
-                        orderFlatDto ->
-                            {return new OrderQueryDto(orderFlatDto.getOrderId(),
-                                                        orderFlatDto.getName(),
-                                                        orderFlatDto.getOrderDate(),
-                                                        orderFlatDto.getOrderStatus(),
-                                                        orderFlatDto.getAddress());
-                            }
-                        // OrderFlatDto를 OrderQueryDto로 매핑하고 [Key]로 사용
-                            ,Collectors.mapping(
-                                    // OrderFlatDto를 OrderItemQueryDto로 매핑한 뒤 리스트로 반환하여 [Value]로 사용
-                                    orderFlatDto ->
-                                            new OrderItemQueryDto(orderFlatDto.getOrderId(),
-                                                                    orderFlatDto.getItemName(),
-                                                                    orderFlatDto.getOrderPrice(),
-                                                                    orderFlatDto.getCount())
-                                            , Collectors.toList()
-                                    // OrderFlatDto를 OrderItemQueryDto로 매핑한 뒤 리스트로 반환하여 [Value]로 사용
-                            )
-                        )
-                )
-                .entrySet().stream() // entrySet으로 변환후 map(중복 제거)
-                .map(entry -> new OrderQueryDto(entry.getKey().getOrderId()
-                                            , entry.getKey().getName()
-                                            , entry.getKey().getOrderDate()
-                                            , entry.getKey().getOrderStatus()
-                                            , entry.getKey().getAddress()
-                                            , entry.getValue()
-                ))
+        // ^ OrderFlatDto 타입으로 전체 조인 결과 조회 (order_id 순)
+        List<OrderQueryDto> result = new ArrayList<>();
+        OrderFlatFolder folder = new OrderFlatFolder(result::add);
+        flats.forEach(folder::accept);
+        folder.finish();
+        return result;
+    }
+
+    /**
+     * 주문 컬렉션 조회 V6 - 스트리밍 내보내기 <br/>
+     * V6는 전체 조인 결과를 List로 한번에 올리므로 주문 테이블이 클수록 힙 사용량이 커진다. <br/>
+     * JDBC fetch size 단위로 읽으면서 주문 단위로 접은 즉시 응답에 JSON을 쓴다. (고정된 힙 사용량, 첫 바이트 즉시 전송) <br/>
+     * 응답 형식은 V6와 같은 주문 배열이며, order_id 순으로 정렬된다. <br/>
+     * URL : http://localhost:8080/api/v6/orders/export
+     */
+    @GetMapping("/api/v6/orders/export")
+    public ResponseEntity<StreamingResponseBody> ordersV6_export() {
+        StreamingResponseBody body = outputStream -> orderExportService.exportFlat(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * 장바구니 주문 API <br/>
+     * 여러 상품을 한 주문(한 트랜잭션)으로 주문한다. <br/>
+     * 재고가 부족한 상품이 있으면 409 응답으로 부족한 상품 id를 모두 알려주고 아무것도 주문되지 않는다. <br/>
+     * @param request {"memberId":1, "lines":[{"itemId":2, "count":1}, {"itemId":3, "count":2}]} (Body - JSON)
+     */
+    @PostMapping("/api/v1/orders")
+    public CreateOrderResponse saveOrder(@RequestBody CreateOrderRequest request) {
+        Long orderId = orderService.orderCart(request.getMemberId(), request.toLines());
+        return new CreateOrderResponse(orderId);
+    }
+
+    /**
+     * 대량 주문 등록 API <br/>
+     * 주문 여러건을 한 트랜잭션으로 등록한다. (JDBC batch insert, batch 단위 flush/clear) <br/>
+     * 하나라도 실패하면 아무것도 등록되지 않는다. <br/>
+     * @param request {"orders":[{"memberId":1, "lines":[{"itemId":2, "count":1}]}, ...]} (Body - JSON)
+     */
+    @PostMapping("/api/v1/orders/bulk")
+    public BulkOrderResponse saveOrders(@RequestBody BulkOrderRequest request) {
+        List<OrderCommand> commands = request.getOrders().stream()
+                .map(order -> new OrderCommand(order.getMemberId(), order.toLines()))
                 .collect(Collectors.toList());
+        long start = System.nanoTime();
+        int count = orderService.orderBulk(commands);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new BulkOrderResponse(count, elapsedMillis);
+    }
+
+    /**
+     * 주문 일괄 취소 API <br/>
+     * 주문 id 목록 또는 회원 이름으로 주문을 한번에 취소한다. (주문 id 목록이 우선) <br/>
+     * 배송완료된 주문, 이미 취소된 주문, 없는 주문은 rejectedIds로 돌려준다. <br/>
+     * @param request {"orderIds":[1, 2, 3]} 또는 {"memberName":"userA"} (Body - JSON)
+     */
+    @PostMapping("/api/v1/orders/cancel")
+    public BulkCancelResponse cancelOrders(@RequestBody BulkCancelRequest request) {
+        BulkCancelResult result;
+        if (request.getOrderIds() != null && !request.getOrderIds().isEmpty()) {
+            result = orderService.cancelOrders(request.getOrderIds());
+        } else if (StringUtils.hasText(request.getMemberName())) {
+            OrderSearch orderSearch = new OrderSearch();
+            orderSearch.setMemberName(request.getMemberName());
+            result = orderService.cancelOrders(orderSearch);
+        } else {
+            throw new IllegalArgumentException("취소할 주문 id 또는 회원 이름이 필요합니다.");
+        }
+        return new BulkCancelResponse(result.getCancelledIds().size(), result.getCancelledIds(), result.getRejectedIds());
+    }
+
+    /**
+     * 재고 부족 -> 409 Conflict (부족한 상품 id 목록)
+     */
+    @ExceptionHandler(NotEnoughStockException.class)
+    public ResponseEntity<NotEnoughStockResponse> notEnoughStock(NotEnoughStockException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new NotEnoughStockResponse(e.getMessage(), e.getItemIds()));
+    }
+
+    /**
+     * 잘못된 요청(없는 상품, 빈 주문 라인, 잘못된 커서 등) -> 400 Bad Request
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    /**
+     * 없는 회원/주문 -> 404 Not Found
+     */
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<ErrorResponse> notFound(NoSuchElementException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+    }
+
+    /**
+     * 장바구니 주문 API request 파라미터용 Dto
+     */
+    @Data
+    static class CreateOrderRequest {
+        private Long memberId;
+        private List<OrderLineRequest> lines;
+
+        List<OrderLine> toLines() {
+            if (lines == null) {
+                return new ArrayList<>(); // 빈 라인은 주문 서비스에서 검증
+            }
+            return lines.stream()
+                    .map(line -> new OrderLine(line.getItemId(), line.getCount()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Data
+    static class OrderLineRequest {
+        private Long itemId;
+        private int count;
+    }
+
+    /**
+     * 장바구니 주문 API 응답 Dto
+     */
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long orderId;
+    }
+
+    /**
+     * 대량 주문 등록 API request 파라미터용 Dto
+     */
+    @Data
+    static class BulkOrderRequest {
+        private List<CreateOrderRequest> orders = new ArrayList<>();
+    }
+
+    /**
+     * 대량 주문 등록 API 응답 Dto
+     */
+    @Data
+    @AllArgsConstructor
+    static class BulkOrderResponse {
+        private int count; // 등록된 주문 수
+        private long elapsedMillis; // 등록 소요 시간
+    }
+
+    /**
+     * 주문 일괄 취소 API request 파라미터용 Dto
+     */
+    @Data
+    static class BulkCancelRequest {
+        private List<Long> orderIds;
+        private String memberName;
+    }
+
+    /**
+     * 주문 일괄 취소 API 응답 Dto
+     */
+    @Data
+    @AllArgsConstructor
+    static class BulkCancelResponse {
+        private int count; // 취소된 주문 수
+        private List<Long> cancelledIds;
+        private List<Long> rejectedIds; // 취소하지 못한 주문 (없는 주문, 이미 취소, 배송완료)
+    }
+
+    /**
+     * 재고 부족 응답 Dto
+     */
+    @Data
+    @AllArgsConstructor
+    static class NotEnoughStockResponse {
+        private String message;
+        private List<Long> itemIds;
+    }
+
+    /**
+     * 오류 응답 Dto
+     */
+    @Data
+    @AllArgsConstructor
+    static class ErrorResponse {
+        private String message;
+    }
 
+    /**
+     * 키셋 페이징 반환 클래스 <br/>
+     * 조회 결과와 함께 다음 페이지 요청에 사용할 커서를 반환한다.
+     * @param <T>
+     */
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private T data;
+        private String nextCursor; // 다음 페이지 커서 (마지막 페이지 : null)
     }
 
     /**
@@ -7,11 +7,14 @@ import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
-import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSummaryRepository;
+import jpabook.jpashop.service.OrderSummaryService;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.aspectj.weaver.ast.Or;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -27,7 +30,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderSimpleApiController {
     private final OrderRepository orderRepository;
-    private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderSummaryService orderSummaryService;
 
     /**
      * 주문 조회 API V1 - 엔터티 직접 노출
@@ -89,11 +93,23 @@ public class OrderSimpleApiController {
     /**
      * 주문조회 API V4 - 엔티티 -> DTO로 바로조회 <br/>
      * 리포지토리 재사용성이 떨어진다. <br/>
-     * API스펙에 맞춘 코드가 리포지토리에 들어가는 단점이 있다.
+     * API스펙에 맞춘 코드가 리포지토리에 들어가는 단점이 있다. <br/>
+     * 주문 요약 조회 모델(order_summary) 단일 테이블에서 조회한다. (조인 없음) <br/>
+     * order_summary는 주문/주문취소/회원명 수정시 같은 트랜잭션에서 갱신된다.
      */
     @GetMapping("/api/v4/simple-orders")
     public List<OrderSimpleQueryDto> ordersV4() {
-        return orderSimpleQueryRepository.findOrderDtos();
+        return orderSummaryRepository.findOrderDtos();
+    }
+
+    /**
+     * 주문 요약 조회 모델 재구성 <br/>
+     * 정규화 테이블(orders, member, delivery)로부터 order_summary를 다시 채운다. (최초 적재, 불일치 복구)
+     * @return 재구성된 주문 요약 수
+     */
+    @PostMapping("/api/v4/simple-orders/rebuild")
+    public RebuildResponse rebuildV4() {
+        return new RebuildResponse(orderSummaryService.rebuild());
     }
 
     /**
@@ -116,4 +132,13 @@ public class OrderSimpleApiController {
 
         }
     }
+
+    /**
+     * 주문 요약 재구성 응답 Dto
+     */
+    @Data
+    @AllArgsConstructor
+    static class RebuildResponse {
+        private int count;
+    }
 }
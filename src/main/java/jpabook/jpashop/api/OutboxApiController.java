@@ -0,0 +1,50 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.OrderOutboxRepository;
+import jpabook.jpashop.service.OrderOutboxPublisher;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 주문 이벤트 아웃박스 발행 통계 조회 API
+ */
+@RestController
+@RequiredArgsConstructor
+public class OutboxApiController {
+
+    private final OrderOutboxPublisher orderOutboxPublisher;
+    private final OrderOutboxRepository orderOutboxRepository;
+
+    /**
+     * 발행 건수/처리량/발행 지연, 발행 대기중인 이벤트 수
+     * @return Result : {publishedCount: , publishedPerSecond: , batchCount: , failedCount: , lastLagMillis: , maxLagMillis: , pendingCount: }
+     */
+    @GetMapping("/api/outbox/stats")
+    public OutboxStatsResult outboxStats() {
+        return new OutboxStatsResult(orderOutboxPublisher.getPublishedCount(),
+                                     orderOutboxPublisher.getPublishedPerSecond(),
+                                     orderOutboxPublisher.getBatchCount(),
+                                     orderOutboxPublisher.getFailedCount(),
+                                     orderOutboxPublisher.getLastLagMillis(),
+                                     orderOutboxPublisher.getMaxLagMillis(),
+                                     orderOutboxRepository.count());
+    }
+
+    /**
+     * 발행 통계 반환 클래스
+     */
+    @Data
+    @AllArgsConstructor
+    static class OutboxStatsResult {
+        private long publishedCount;
+        private double publishedPerSecond;
+        private long batchCount;
+        private long failedCount; // 실패한 발행 주기 수 (이벤트는 다음 주기에 다시 발행)
+        private long lastLagMillis; // 마지막 묶음의 최대 발행 지연
+        private long maxLagMillis;
+        private long pendingCount; // 발행 대기중인 이벤트 수
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.service.OrderChangeTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * [주문 목록 조건부 GET] <br/>
+ * 컨트롤러(조회 쿼리) 실행 전에 OrderChangeTracker의 워터마크로 If-None-Match / If-Modified-Since를 검사한다. <br/>
+ * 변경이 없으면 304 Not Modified를 응답하고 컨트롤러를 호출하지 않는다. (주문 테이블 조회, JSON 직렬화 생략) <br/>
+ * 변경이 있으면 ETag/Last-Modified 헤더를 붙이고 그대로 진행한다. <br/>
+ * 워터마크는 반드시 조회 전에 읽는다. (조회 후에 읽으면 그 사이 커밋된 변경을 이전 데이터의 ETag로 내려줄 수 있다.) <br/>
+ * HTTP 날짜는 초 단위이므로 마지막 변경이 지금과 같은 초이면 Last-Modified 없이 ETag로만 검증한다. <br/>
+ * (같은 초에 이어진 변경을 같은 Last-Modified로 내려주면 If-Modified-Since로 304를 잘못 응답하게 된다.)
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderNotModifiedInterceptor implements HandlerInterceptor {
+
+    private final OrderChangeTracker orderChangeTracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        String etag = orderChangeTracker.getETag();
+        long lastModified = orderChangeTracker.getLastModified();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue()); // 매번 재검증
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        if (lastModified / 1000 >= System.currentTimeMillis() / 1000) {
+            return !webRequest.checkNotModified(etag); // 같은 초 안에 변경이 더 있을 수 있음
+        }
+        return !webRequest.checkNotModified(etag, lastModified);
+    }
+}
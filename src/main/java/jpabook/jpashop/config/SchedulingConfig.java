@@ -0,0 +1,13 @@
+package jpabook.jpashop.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * [정기 작업] - @Scheduled <br/>
+ * 배송완료 처리 작업(DeliveryCompletionJob)의 cron 실행에 사용한다.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.domain.item.StockHandler;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.service.AtomicStockHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * [상품 재고 증감 방식 설정] - jpashop.order.stock-mode (entity / atomic) <br/>
+ * reservation 방식은 StockReservationEngine이 직접 빈으로 등록된다.
+ */
+@Configuration
+public class StockConfig {
+
+    private static final String STOCK_MODE = "jpashop.order.stock-mode";
+
+    /**
+     * 엔티티 변경감지 (기본)
+     */
+    @Bean
+    @ConditionalOnProperty(name = STOCK_MODE, havingValue = "entity", matchIfMissing = true)
+    public StockHandler entityStockHandler() {
+        return StockHandler.ENTITY;
+    }
+
+    /**
+     * 조건부 update
+     */
+    @Bean
+    @ConditionalOnProperty(name = STOCK_MODE, havingValue = "atomic")
+    public StockHandler atomicStockHandler(ItemRepository itemRepository) {
+        return new AtomicStockHandler(itemRepository);
+    }
+}
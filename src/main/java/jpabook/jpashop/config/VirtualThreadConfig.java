@@ -0,0 +1,77 @@
+package jpabook.jpashop.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * [가상 스레드 요청 처리 모드] - jpashop.threads.virtual=true 일때만 적용 <br/>
+ * 톰캣의 고정 크기 플랫폼 스레드 풀 대신 요청마다 가상 스레드에서 처리한다. <br/>
+ * 컨트롤러 -> @Transactional 서비스 -> JDBC 호출이 모두 요청 스레드에서 실행되므로 함께 가상 스레드에서 실행된다. <br/>
+ * JDBC 블로킹 동안 캐리어 스레드를 반납하므로 스레드 수가 병목이 되지 않는다. <br/>
+ * 단, 동시에 DB 작업을 할 수 있는 수는 여전히 커넥션 풀 크기(spring.datasource.hikari.maximum-pool-size)로 제한된다. <br/>
+ * 빌드는 JDK 17 기준이므로 가상 스레드 API는 리플렉션으로 호출한다. JDK 21 미만 런타임에서 켜면 기동시 실패한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+
+    /**
+     * 톰캣 요청 처리 스레드 -> 가상 스레드
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * 스프링 MVC 비동기 처리(StreamingResponseBody 등) 스레드 -> 가상 스레드
+     */
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * 현재 런타임이 가상 스레드를 지원하는지 (JDK 21 이상)
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() <br/>
+     * 지원하지 않는 런타임이면 IllegalStateException
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            throw new IllegalStateException("가상 스레드는 JDK 21 이상에서만 사용할 수 있습니다. (jpashop.threads.virtual=true, 현재 JDK "
+                    + Runtime.version().feature() + ")");
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("가상 스레드 executor 생성 실패", e);
+        }
+    }
+
+    private static Method findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
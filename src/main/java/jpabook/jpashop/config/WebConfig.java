@@ -0,0 +1,32 @@
+package jpabook.jpashop.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 스프링 MVC 설정
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final OrderNotModifiedInterceptor orderNotModifiedInterceptor;
+
+    @Value("${jpashop.order.not-modified.enabled:false}")
+    private boolean notModifiedEnabled; // 워터마크가 인스턴스 메모리에 있으므로 단일 인스턴스 배포에서만 true
+
+    /**
+     * 주문 목록 조회 API - 조건부 GET (ETag / Last-Modified)
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!notModifiedEnabled) {
+            return;
+        }
+        registry.addInterceptor(orderNotModifiedInterceptor)
+                .addPathPatterns("/api/*/orders", "/api/*/orders/export", "/api/*/simple-orders");
+    }
+}
@@ -4,6 +4,7 @@ import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.IdempotentOrderService;
 import jpabook.jpashop.service.ItemService;
 import jpabook.jpashop.service.MemberService;
 import jpabook.jpashop.service.OrderService;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 import java.util.List;
 
@@ -21,6 +23,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final IdempotentOrderService idempotentOrderService; // Idempotency-Key 중복 주문 방지 + 그룹 커밋
     private final MemberService memberService;
     private final ItemService itemService;
 
@@ -39,13 +42,15 @@ public class OrderController {
     }
 
     /**
-     * [상품 주문] submit 상품 저장
+     * [상품 주문] submit 상품 저장 <br/>
+     * Idempotency-Key 헤더가 있으면 같은 키로 재시도된 요청은 다시 주문하지 않는다.
      * @param model
      * @return
      */
     @PostMapping("/order")
-    public String order(Long memberId, Long itemId, int count) {
-        orderService.order(memberId, itemId, count);
+    public String order(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                        Long memberId, Long itemId, int count) {
+        idempotentOrderService.order(idempotencyKey, memberId, itemId, count);
         return "redirect:/orders";
     }
 
@@ -0,0 +1,73 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * [배송완료 처리 작업 진행 기록] <br/>
+ * 작업(이름 = 작업 조건)마다 마지막으로 처리한 delivery_id를 청크 update와 같은 트랜잭션에서 갱신한다. <br/>
+ * 작업이 중간에 멈추면 같은 조건으로 다시 실행했을때 마지막 delivery_id 다음부터 이어서 처리한다. <br/>
+ * 완료된 작업을 같은 조건으로 다시 실행하면 처음부터 새로 처리한다. (그 사이 새로 생긴 배송준비 배송)
+ */
+@Entity
+@Table(name = "delivery_job_checkpoint")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class DeliveryJobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 200)
+    private String jobName;
+
+    @Column(name = "last_delivery_id")
+    private Long lastDeliveryId; // 여기까지(포함) 처리함
+
+    @Column(name = "updated_count")
+    private long updatedCount; // 지금까지 배송완료로 바꾼 배송 수
+
+    private boolean completed;
+
+    @Column(name = "updated_date")
+    private LocalDateTime updatedDate;
+
+    //=================== 생성 메서드 ===================//
+    public static DeliveryJobCheckpoint createDeliveryJobCheckpoint(String jobName) {
+        DeliveryJobCheckpoint checkpoint = new DeliveryJobCheckpoint();
+        checkpoint.jobName = jobName;
+        checkpoint.lastDeliveryId = 0L;
+        checkpoint.updatedDate = LocalDateTime.now();
+        return checkpoint;
+    }
+
+    //===================비즈니스 로직===================//
+    /**
+     * 청크 하나 처리 완료
+     */
+    public void advance(Long lastDeliveryId, int updated) {
+        this.lastDeliveryId = lastDeliveryId;
+        this.updatedCount += updated;
+        this.updatedDate = LocalDateTime.now();
+    }
+
+    /**
+     * 완료된 작업 다시 시작 - 진행 기록 초기화
+     */
+    public void restart() {
+        this.lastDeliveryId = 0L;
+        this.updatedCount = 0;
+        this.completed = false;
+        this.updatedDate = LocalDateTime.now();
+    }
+
+    /**
+     * 더 처리할 배송 없음
+     */
+    public void complete() {
+        this.completed = true;
+        this.updatedDate = LocalDateTime.now();
+    }
+}
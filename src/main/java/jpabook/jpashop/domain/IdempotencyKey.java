@@ -0,0 +1,68 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * [주문 멱등키] <br/>
+ * 클라이언트가 보낸 Idempotency-Key 헤더와 그 키로 만들어진 주문 id <br/>
+ * 주문과 같은 트랜잭션에서 저장되므로, 키가 있으면 주문도 반드시 있다. (키가 PK -> 같은 키로 두번 주문할 수 없음) <br/>
+ * 메모리 캐시(IdempotentOrderService)에서 밀려났거나 서버가 재시작된 뒤의 재시도는 이 테이블로 걸러낸다. <br/>
+ * 요청 내용(fingerprint)을 함께 저장해서 같은 키로 다른 주문을 요청하면 거절한다. <br/>
+ * 보관 기간(retention-hours)이 지난 키는 매일 삭제한다. (IdempotentOrderService.purgeExpired)
+ */
+@Entity
+@Table(name = "idempotency_key",
+        indexes = @Index(name = "idx_idempotency_key_created_date", columnList = "created_date")) // 오래된 키 삭제
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class IdempotencyKey {
+
+    public static final int MAX_LENGTH = 100;
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_LENGTH)
+    private String key;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "fingerprint", length = 100)
+    private String fingerprint; // 요청 내용 (회원/상품/수량)
+
+    @Column(name = "created_date")
+    private LocalDateTime createdDate; // 오래된 키 정리 기준
+
+    //=================== 생성 메서드 ===================//
+    public static IdempotencyKey createIdempotencyKey(String key, Long orderId, Long memberId, Long itemId, int count) {
+        IdempotencyKey idempotencyKey = new IdempotencyKey();
+        idempotencyKey.key = key;
+        idempotencyKey.orderId = orderId;
+        idempotencyKey.memberId = memberId;
+        idempotencyKey.fingerprint = fingerprint(memberId, itemId, count);
+        idempotencyKey.createdDate = LocalDateTime.now();
+        return idempotencyKey;
+    }
+
+    /**
+     * 요청 내용 - 같은 키의 재시도는 이 값이 같아야 한다.
+     */
+    public static String fingerprint(Long memberId, Long itemId, int count) {
+        return "member=" + memberId + ";item=" + itemId + ";count=" + count;
+    }
+
+    //===================비즈니스 로직===================//
+    /**
+     * 같은 요청인지 확인
+     */
+    public boolean matches(Long memberId, Long itemId, int count) {
+        return fingerprint.equals(fingerprint(memberId, itemId, count));
+    }
+}
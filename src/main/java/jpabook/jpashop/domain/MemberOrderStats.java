@@ -0,0 +1,52 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * [회원별 주문 통계] <br/>
+ * 회원의 주문 수, 총 주문 금액(취소된 주문 제외), 마지막 주문 일시를 회원당 한 줄로 유지한다. <br/>
+ * 주문/주문취소 트랜잭션에서 증감 update 한번으로 함께 갱신되므로(MemberOrderStatsRepository) <br/>
+ * 조회시 Member.orders, OrderItem을 읽지 않고 PK 조회 한번으로 끝난다. <br/>
+ * 정규화 테이블(member, orders, order_item)로부터 다시 만들 수 있다. (MemberOrderStatsRepository.reconcile)
+ */
+@Entity
+@Table(name = "member_order_stats")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberOrderStats {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId; // 회원 id (member.member_id와 같은 값)
+
+    @Column(name = "order_count")
+    private int orderCount; // 취소되지 않은 주문 수
+
+    @Column(name = "total_spend")
+    private long totalSpend; // 취소되지 않은 주문 금액 합계
+
+    @Column(name = "last_order_date")
+    private LocalDateTime lastOrderDate; // 마지막 주문 일시 (취소된 주문 포함)
+
+    //=================== 생성 메서드 ===================//
+    public static MemberOrderStats createMemberOrderStats(Long memberId, int orderCount, long totalSpend, LocalDateTime lastOrderDate) {
+        MemberOrderStats stats = new MemberOrderStats();
+        stats.memberId = memberId;
+        stats.orderCount = orderCount;
+        stats.totalSpend = totalSpend;
+        stats.lastOrderDate = lastOrderDate;
+        return stats;
+    }
+
+    /**
+     * 주문이 없는 회원의 통계 (통계 row가 없는 회원 조회시)
+     */
+    public static MemberOrderStats empty(Long memberId) {
+        return createMemberOrderStats(memberId, 0, 0, null);
+    }
+}
@@ -1,6 +1,10 @@
 package jpabook.jpashop.domain;
 
+import jpabook.jpashop.domain.item.StockHandler;
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -10,14 +14,18 @@ import java.util.List;
 import static javax.persistence.FetchType.*;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, order_id"), // 키셋 페이징(주문일시 정렬) 인덱스
+        @Index(name = "idx_orders_delivery_id", columnList = "delivery_id")}) // 배송완료 처리 작업(배송 -> 주문) 인덱스
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
 public class Order {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "orders_seq"))
     @Column(name = "order_id")
     private Long id;
 
@@ -32,6 +40,7 @@ public class Order {
     @JoinColumn(name = "delivery_id") //1:1관계에서는 fk를 어디에두냐에 따라 장단점이 있다. (주로 Access를 많이하는곳에 두는걸 추천한다.)
     private Delivery delivery;
 
+    @Column(name = "order_date")
     private LocalDateTime orderDate; // 주문 시간
 
     @Enumerated(EnumType.STRING)
@@ -79,12 +88,18 @@ public class Order {
      * 주문한 상품들을 반복하여 cancel() 한다. <br/>
      * (cancel()은 재고를 원상복구 하는 기능으로 주문 상품에서 재고를 관리하기 때문에 OrderItem으로 부터 호출)*/
     public void cancel() {
+        cancel(StockHandler.ENTITY);
+    }
+
+    /**
+     * [주문 취소] - 재고 증감 방식 지정 */
+    public void cancel(StockHandler stockHandler) {
         if (delivery.getStatus() == DeliveryStatus.COMP) { // 배송이 출발 되었다면
             throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다."); //취소 불가
         }
         this.setStatus(OrderStatus.CANCEL);
         for (OrderItem orderItem : this.orderItems) {
-            orderItem.cancel();
+            orderItem.cancel(stockHandler);
         }
     }
     
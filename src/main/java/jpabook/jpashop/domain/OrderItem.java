@@ -2,17 +2,25 @@ package jpabook.jpashop.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.StockHandler;
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
 import static javax.persistence.FetchType.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_order_item_order_id", columnList = "order_id")) // 주문 id(범위) 기준 주문상품 조회
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "order_item_seq")
+    @GenericGenerator(name = "order_item_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_item_seq"))
     @Column(name = "order_item_id")
     private Long id;
 
@@ -34,12 +42,18 @@ public class OrderItem {
      * 주문에대한 상품을 관리하는 중간 테이블인 OrderItem에서는 주문 수량을 관리한다 <br/>
      * 따라서 상품 주문시 상품 재고를 이곳에서 깎는다. */
     public static OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        return createOrderItem(item, orderPrice, count, StockHandler.ENTITY);
+    }
+
+    /**
+     * [주문 상품 생성] - 재고 증감 방식 지정 <br/>
+     * stockHandler : 엔티티 변경감지(ENTITY) 또는 조건부 update(AtomicStockHandler) */
+    public static OrderItem createOrderItem(Item item, int orderPrice, int count, StockHandler stockHandler) {
         OrderItem orderItem = new OrderItem();
         orderItem.setItem(item);
         orderItem.setOrderPrice(orderPrice);
         orderItem.setCount(count);
-        item.removeStock(count); // 아이템이 주문이 되면 아이템의 수량을 주문한만큼 삭제한다.
-        //
+        stockHandler.removeStock(item, count); // 아이템이 주문이 되면 아이템의 수량을 주문한만큼 삭제한다.
         return orderItem;
     }
 
@@ -48,7 +62,13 @@ public class OrderItem {
      * [주문 취소] <br/>
      * 주문을 취소하기 때문에 상품 재고를 주문한만큼 원상복구 시킨다. */
     public void cancel() {
-        getItem().addStock(count);
+        cancel(StockHandler.ENTITY);
+    }
+
+    /**
+     * [주문 취소] - 재고 증감 방식 지정 */
+    public void cancel(StockHandler stockHandler) {
+        stockHandler.addStock(getItem(), count);
     }
     
     //=================== 조회 로직 ===================//
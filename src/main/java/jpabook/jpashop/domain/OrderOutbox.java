@@ -0,0 +1,49 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * [주문 이벤트 아웃박스] <br/>
+ * 주문/주문취소 트랜잭션에서 외부로 보낼 이벤트를 한 줄씩 함께 저장한다. (커밋된 주문만 이벤트가 남는다) <br/>
+ * 백그라운드 발행기(OrderOutboxPublisher)가 id 순으로 묶어서 발행하고 삭제한다. (최소 한번 발행)
+ */
+@Entity
+@Table(name = "order_outbox")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderOutbox {
+
+    @Id
+    @GeneratedValue(generator = "order_outbox_seq")
+    @GenericGenerator(name = "order_outbox_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_outbox_seq"))
+    @Column(name = "order_outbox_id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 20)
+    private OrderEventType eventType; // [ORDER_CREATED, ORDER_CANCELLED]
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "created_date")
+    private LocalDateTime createdDate; // 발행 지연 측정 기준
+
+    //=================== 생성 메서드 ===================//
+    public static OrderOutbox createOrderOutbox(OrderEventType eventType, Long orderId) {
+        OrderOutbox outbox = new OrderOutbox();
+        outbox.eventType = eventType;
+        outbox.orderId = orderId;
+        outbox.createdDate = LocalDateTime.now();
+        return outbox;
+    }
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * [주문 요약 조회 모델] <br/>
+ * 주문 목록(심플 주문 조회 V4)을 조인 없이 단일 테이블에서 읽기 위한 비정규화 테이블 <br/>
+ * 주문/주문취소/회원명 수정시 같은 트랜잭션에서 함께 갱신된다. (OrderService, MemberService) <br/>
+ * 정규화 테이블(orders, member, delivery)로부터 다시 만들 수 있다. (OrderSummaryRepository.rebuild)
+ */
+@Entity
+@Table(name = "order_summary", indexes = @Index(name = "idx_order_summary_member_id", columnList = "member_id"))
+@Getter @Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId; // 주문 id (orders.order_id와 같은 값)
+
+    @Column(name = "member_id")
+    private Long memberId; // 회원명 수정시 갱신 대상 검색용
+
+    @Column(name = "member_name")
+    private String memberName;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status; // [ORDER, CANCEL]
+
+    @Embedded
+    private Address address; // 배송지 주소
+
+    //=================== 생성 메서드 ===================//
+    /**
+     * [주문 요약 생성] <br/>
+     * 저장된(id가 부여된) 주문으로부터 요약을 만든다.
+     */
+    public static OrderSummary createOrderSummary(Order order) {
+        OrderSummary orderSummary = new OrderSummary();
+        orderSummary.setOrderId(order.getId());
+        orderSummary.setMemberId(order.getMember().getId());
+        orderSummary.setMemberName(order.getMember().getName());
+        orderSummary.setOrderDate(order.getOrderDate());
+        orderSummary.setStatus(order.getStatus());
+        orderSummary.setAddress(order.getDelivery().getAddress());
+        return orderSummary;
+    }
+}
@@ -1,9 +1,15 @@
 package jpabook.jpashop.domain.item;
 
 import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.PooledSequenceGenerator;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -14,16 +20,23 @@ import java.util.List;
  *  new 연산자를 사용하여 직접 객체를 만들지는 못하고 오직 상속을 통해 자식 클래스만 만드는 용도로만 사용이 가능
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 2차 캐시 - Book, Album, Movie는 부모(Item) 리전을 함께 사용한다.
 @Getter @Setter
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE) // Book, Album, Movie에 대한 싱글테이블 전략
 @DiscriminatorColumn(name = "dtype")
 public abstract class Item {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "item_seq")
+    @GenericGenerator(name = "item_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "item_seq"))
     @Column(name = "item_id")
     private Long id;
     private String name;
     private int price;
     private int stockQuantity;
+    @Version
+    private Long version; // 낙관적 락 - 동시 주문의 재고 갱신 충돌 감지 (초과 판매 방지)
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
     
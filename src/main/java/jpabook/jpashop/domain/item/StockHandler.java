@@ -0,0 +1,53 @@
+package jpabook.jpashop.domain.item;
+
+/**
+ * [상품 재고 증감 방식] <br/>
+ * 주문상품 생성/취소시 상품 재고를 어떻게 바꿀지 결정한다. (jpashop.order.stock-mode) <br/>
+ * - entity : 엔티티의 재고를 바꾸고 커밋 시점 변경감지로 반영 (Item.removeStock / addStock) <br/>
+ * - atomic : 조건부 update 한번으로 DB에서 바로 증감 (ItemRepository.decreaseStock / increaseStock) <br/>
+ * - reservation : 메모리 카운터에서 예약하고 예약 기록을 모아서 나중에 반영 (StockReservationEngine)
+ */
+public interface StockHandler {
+
+    /**
+     * 엔티티 변경감지 방식 (기본)
+     */
+    StockHandler ENTITY = new StockHandler() {
+        @Override
+        public void removeStock(Item item, int quantity) {
+            item.removeStock(quantity);
+        }
+
+        @Override
+        public void addStock(Item item, int quantity) {
+            item.addStock(quantity);
+        }
+    };
+
+    /**
+     * 재고 감소 <br/>
+     * 재고가 부족하면 NotEnoughStockException
+     */
+    void removeStock(Item item, int quantity);
+
+    /**
+     * 재고 증가
+     */
+    void addStock(Item item, int quantity);
+
+    /**
+     * 재고 직접 수정 (상품 수정) <br/>
+     * 재고를 따로 관리하는 방식(reservation)은 차이만큼 증감으로 바꿔서 반영한다.
+     */
+    default void setStock(Item item, int quantity) {
+        item.setStockQuantity(quantity);
+    }
+
+    /**
+     * 재고를 item.stock_quantity 밖에서 따로 관리하는지 여부 (reservation) <br/>
+     * false 이면 상품 엔티티를 조회하지 않고 update로 재고를 바로 증감해도 된다. (주문 일괄 취소)
+     */
+    default boolean isSeparateStock() {
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.domain.item;
+
+import jpabook.jpashop.domain.PooledSequenceGenerator;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.*;
+
+/**
+ * [재고 예약 기록] - jpashop.order.stock-mode=reservation <br/>
+ * 주문/주문취소 트랜잭션에서 상품 row를 갱신하는 대신 예약 수량을 한 줄씩 기록한다. (insert만 하므로 row 락 경합 없음) <br/>
+ * 기록은 주기적으로 상품별로 합쳐서 item.stock_quantity에 반영한 뒤 삭제된다. (StockReservationEngine.flush) <br/>
+ * 언제나 [실제 남은 재고 = item.stock_quantity - 반영되지 않은 예약 합계] 이다.
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = @Index(name = "idx_stock_reservation_item_id", columnList = "item_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(generator = "stock_reservation_seq")
+    @GenericGenerator(name = "stock_reservation_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "stock_reservation_seq"))
+    @Column(name = "stock_reservation_id")
+    private Long id;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    private int quantity; // 양수 : 예약(재고 감소), 음수 : 반환(재고 증가)
+
+    //=================== 생성 메서드 ===================//
+    public static StockReservation createStockReservation(Long itemId, int quantity) {
+        StockReservation reservation = new StockReservation();
+        reservation.itemId = itemId;
+        reservation.quantity = quantity;
+        return reservation;
+    }
+}
@@ -1,19 +1,37 @@
 package jpabook.jpashop.exception;
 
+import java.util.Collections;
+import java.util.List;
+
 public class NotEnoughStockException extends RuntimeException {
+    private final List<Long> itemIds; // 재고가 부족한 상품 id 목록 (장바구니 주문)
+
     public NotEnoughStockException() {
         super();
+        this.itemIds = Collections.emptyList();
     }
 
     public NotEnoughStockException(String message) {
         super(message);
+        this.itemIds = Collections.emptyList();
+    }
+
+    public NotEnoughStockException(String message, List<Long> itemIds) {
+        super(message);
+        this.itemIds = Collections.unmodifiableList(itemIds);
     }
 
     public NotEnoughStockException(String message, Throwable cause) {
         super(message, cause);
+        this.itemIds = Collections.emptyList();
     }
 
     public NotEnoughStockException(Throwable cause) {
         super(cause);
+        this.itemIds = Collections.emptyList();
+    }
+
+    public List<Long> getItemIds() {
+        return itemIds;
     }
 }
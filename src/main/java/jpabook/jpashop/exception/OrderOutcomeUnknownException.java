@@ -0,0 +1,16 @@
+package jpabook.jpashop.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 주문이 이미 처리(묶음 트랜잭션)에 들어갔지만 결과를 받지 못함 -> 202 <br/>
+ * 주문이 커밋되었을 수 있으므로 실패로 응답하지 않는다. (재주문 전에 주문 내역 확인, 또는 Idempotency-Key로 재시도)
+ */
+@ResponseStatus(HttpStatus.ACCEPTED)
+public class OrderOutcomeUnknownException extends RuntimeException {
+
+    public OrderOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
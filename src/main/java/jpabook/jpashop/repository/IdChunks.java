@@ -0,0 +1,32 @@
+package jpabook.jpashop.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * in 절 파라미터 분할 유틸 <br/>
+ * id 목록을 한번에 in 절로 넘기면 드라이버 파라미터 수 제한에 걸리거나, <br/>
+ * 목록 길이가 매번 달라서 statement/실행계획 캐시를 재사용하지 못한다. <br/>
+ * 일정한 크기로 잘라서 조회하고, 마지막 조각은 hibernate.query.in_clause_parameter_padding 으로 <br/>
+ * 2의 거듭제곱 크기로 채워져 같은 모양의 SQL이 재사용된다.
+ */
+public abstract class IdChunks {
+
+    /**
+     * 목록을 size 크기의 조각으로 나눈다. (각 조각은 원본의 subList 뷰)
+     */
+    public static <T> List<List<T>> partition(List<T> ids, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("chunk size must be positive : " + size);
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<List<T>> chunks = new ArrayList<>((ids.size() + size - 1) / size);
+        for (int from = 0; from < ids.size(); from += size) {
+            chunks.add(ids.subList(from, Math.min(from + size, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.IdempotencyKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 멱등키 저장 <br/>
+     * 바로 flush 해서 같은 키가 이미 있으면(PK 중복) 이 자리에서 DataIntegrityViolationException이 발생하게 한다.
+     */
+    public void save(IdempotencyKey idempotencyKey) {
+        em.persist(idempotencyKey);
+        em.flush();
+    }
+
+    /**
+     * 멱등키 조회 - 없으면 null
+     */
+    public IdempotencyKey findOne(String key) {
+        return em.find(IdempotencyKey.class, key);
+    }
+
+    /**
+     * 기준 시각 이전에 저장된 멱등키 삭제 (delete 한번, created_date 인덱스)
+     * @return 삭제된 키 수
+     */
+    public int deleteCreatedBefore(LocalDateTime before) {
+        return em.createQuery("delete from IdempotencyKey k where k.createdDate < :before")
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+}
@@ -31,6 +31,45 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    /**
+     * [상품 목록 검색] - in 쿼리 한번 <br/>
+     * item_id 오름차순으로 반환한다. (재고 갱신 순서 = row 락 순서)
+     */
+    public List<Item> findAllById(List<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids order by i.id", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * [재고 감소] - 조건부 update <br/>
+     * 재고가 충분할 때만 줄인다. 엔티티를 읽지 않고 update 한번으로 검사와 감소를 함께 한다. <br/>
+     * 엔티티 방식과 섞여도 충돌을 감지하도록 버전도 함께 올린다. <br/>
+     * (벌크 연산이므로 Item 2차 캐시 리전은 무효화된다.)
+     * @return 변경된 row 수 (0 : 재고 부족 또는 상품 없음)
+     */
+    public int decreaseStock(Long id, int count) {
+        return em.createQuery("update Item i " +
+                        "set i.stockQuantity = i.stockQuantity - :count, i.version = i.version + 1 " +
+                        "where i.id = :id and i.stockQuantity >= :count")
+                .setParameter("count", count)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    /**
+     * [재고 증가] - update
+     * @return 변경된 row 수
+     */
+    public int increaseStock(Long id, int count) {
+        return em.createQuery("update Item i " +
+                        "set i.stockQuantity = i.stockQuantity + :count, i.version = i.version + 1 " +
+                        "where i.id = :id")
+                .setParameter("count", count)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
     /**
      * 상품 전체 검색
      */
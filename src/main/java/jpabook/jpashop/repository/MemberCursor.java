@@ -0,0 +1,31 @@
+package jpabook.jpashop.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 회원 키셋 페이징 커서 <br/>
+ * 마지막으로 조회한 회원 id를 Base64(URL-safe) 불투명(opaque) 문자열로 노출한다. (OrderCursor와 같은 방식)
+ */
+public abstract class MemberCursor {
+
+    /**
+     * 마지막으로 조회한 회원 id -> 불투명 문자열
+     */
+    public static String encode(Long lastMemberId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(lastMemberId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 불투명 문자열 -> 마지막으로 조회한 회원 id <br/>
+     * 클라이언트가 임의로 조작한 값이면 IllegalArgumentException
+     */
+    public static Long decode(String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) { // NumberFormatException 포함
+            throw new IllegalArgumentException("잘못된 커서 입니다. cursor=" + cursor, e);
+        }
+    }
+}
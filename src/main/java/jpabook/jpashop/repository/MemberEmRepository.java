@@ -5,11 +5,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberEmRepository {
+    private static final int IN_CHUNK_SIZE = 512; // in 절 파라미터 최대 개수
+
     private final EntityManager em;
 
     /**
@@ -48,4 +51,40 @@ public class MemberEmRepository {
                 .setParameter("name", name)
                 .getResultList();
     }
+
+    /**
+     * 이미 가입된 이름 조회 (in 절 조각마다 쿼리 한번) - 엔티티를 만들지 않는다.
+     * @param names 확인할 이름 목록
+     * @return 목록 중 이미 가입된 이름
+     */
+    public List<String> findExistingNames(List<String> names) {
+        List<String> existing = new ArrayList<>();
+        for (List<String> chunk : IdChunks.partition(names, IN_CHUNK_SIZE)) {
+            existing.addAll(em.createQuery("select m.name from Member m where m.name in :names", String.class)
+                    .setParameter("names", chunk)
+                    .getResultList());
+        }
+        return existing;
+    }
+
+    /**
+     * 저장한 회원 insert(batch) 후 영속성 컨텍스트 비우기
+     */
+    public void flushAndClear() {
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * 회원 id, 이름 키셋 조회 (id 오름차순) - 엔티티를 만들지 않는다.
+     * @param lastId 이 id 다음부터
+     * @param limit 최대 조회 수
+     * @return [id, name] 목록
+     */
+    public List<Object[]> findNamesAfter(Long lastId, int limit) {
+        return em.createQuery("select m.id, m.name from Member m where m.id > :lastId order by m.id", Object[].class)
+                .setParameter("lastId", lastId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 }
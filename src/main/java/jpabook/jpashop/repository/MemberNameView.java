@@ -0,0 +1,10 @@
+package jpabook.jpashop.repository;
+
+/**
+ * [회원 이름 조회 프로젝션] - SpringDataJPA 인터페이스 기반 Closed 프로젝션 <br/>
+ * 엔티티 대신 select 절에 member_id, name 컬럼만 조회한다. (영속성 컨텍스트/2차 캐시에 올리지 않음)
+ */
+public interface MemberNameView {
+    Long getId();
+    String getName();
+}
@@ -0,0 +1,184 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.MemberOrderStats;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 회원별 주문 통계(member_order_stats) 리포지토리 <br/>
+ * 통계 row를 읽어서 고치지 않고, 증감 update 한번으로 갱신한다. (동시 주문도 row 락 순서대로 누적되어 유실 없음) <br/>
+ * 통계 row는 회원 가입시 만들고(insertEmpty), 그 전에 있던 회원은 첫 주문(increment) 또는 재구성(reconcile)에서 만든다. <br/>
+ * (row가 없을때의 insert는 회원 row 락으로 직렬화한다 - 같은 회원의 동시 첫 주문이 모두 insert 하지 않도록) <br/>
+ * 쓰기/조회 모두 영속성 컨텍스트에 MemberOrderStats 엔티티를 올리지 않는다. (bulk update 이후 낡은 엔티티를 읽지 않도록)
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberOrderStatsRepository {
+
+    private static final int BULK_CHUNK_SIZE = 512; // in 절 파라미터 최대 개수
+
+    private final EntityManager em;
+
+    /**
+     * [빈 통계 저장] - 회원 가입/일괄 등록 <br/>
+     * 이미 flush 된 회원의 통계 row를 in 절 insert ... select 로 만든다.
+     */
+    public void insertEmpty(List<Long> memberIds) {
+        for (List<Long> chunk : IdChunks.partition(memberIds, BULK_CHUNK_SIZE)) {
+            em.createNativeQuery("insert into member_order_stats (member_id, order_count, total_spend) " +
+                            "select m.member_id, 0, 0 from member m where m.member_id in (:memberIds)")
+                    .setParameter("memberIds", chunk)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedEntityClass(MemberOrderStats.class)
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * 회원 통계 단건 조회 (PK) - 없으면 null <br/>
+     * 컬럼 값만 조회해서 영속성 컨텍스트와 무관한(준영속) 통계를 돌려준다. -> 같은 트랜잭션의 증감 update도 항상 반영됨
+     */
+    public MemberOrderStats findOne(Long memberId) {
+        List<Object[]> rows = em.createQuery("select s.orderCount, s.totalSpend, s.lastOrderDate " +
+                        "from MemberOrderStats s where s.memberId = :memberId", Object[].class)
+                .setParameter("memberId", memberId)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        return MemberOrderStats.createMemberOrderStats(memberId, (Integer) row[0], (Long) row[1], (LocalDateTime) row[2]);
+    }
+
+    /**
+     * [주문 반영] - 주문 수/금액 증가, 마지막 주문 일시 갱신 <br/>
+     * 통계 row가 없는 회원(통계 도입 전 가입)은 회원 row를 잠그고 다시 갱신해보고, 그래도 없으면 이번 주문으로 row를 만든다. <br/>
+     * (이전 주문은 재구성(reconcile)에서 채운다.)
+     * @return 갱신/저장된 통계 row 수 (0 : 회원 없음)
+     */
+    public int increment(Long memberId, int orderCount, long amount, LocalDateTime orderDate) {
+        int updated = update(memberId, orderCount, amount, orderDate);
+        if (updated > 0) {
+            return updated;
+        }
+        lockMembers(Collections.singletonList(memberId)); // 먼저 잠근 트랜잭션이 insert 하고, 나머지는 그 row를 갱신한다.
+        updated = update(memberId, orderCount, amount, orderDate);
+        if (updated > 0) {
+            return updated;
+        }
+        return em.createNativeQuery("insert into member_order_stats (member_id, order_count, total_spend, last_order_date) " +
+                        "select m.member_id, :orderCount, :amount, :orderDate from member m where m.member_id = :memberId")
+                .setParameter("orderCount", orderCount)
+                .setParameter("amount", amount)
+                .setParameter("orderDate", orderDate)
+                .setParameter("memberId", memberId)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(MemberOrderStats.class)
+                .executeUpdate();
+    }
+
+    private int update(Long memberId, int orderCount, long amount, LocalDateTime orderDate) {
+        return em.createQuery("update MemberOrderStats s set " +
+                        "s.orderCount = s.orderCount + :orderCount, " +
+                        "s.totalSpend = s.totalSpend + :amount, " +
+                        "s.lastOrderDate = case when s.lastOrderDate is null or s.lastOrderDate < :orderDate then :orderDate else s.lastOrderDate end " +
+                        "where s.memberId = :memberId")
+                .setParameter("orderCount", orderCount)
+                .setParameter("amount", amount)
+                .setParameter("orderDate", orderDate)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * [주문 취소 반영] - 주문 수/금액 감소
+     */
+    public int decrement(Long memberId, int orderCount, long amount) {
+        return em.createQuery("update MemberOrderStats s set " +
+                        "s.orderCount = s.orderCount - :orderCount, " +
+                        "s.totalSpend = s.totalSpend - :amount " +
+                        "where s.memberId = :memberId")
+                .setParameter("orderCount", orderCount)
+                .setParameter("amount", amount)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * [주문 일괄 취소 반영] <br/>
+     * 취소된 주문을 회원별로 합쳐서(주문 수, 금액) 회원당 update 한번씩 감소시킨다.
+     */
+    public void decrementByOrders(List<Long> orderIds) {
+        for (List<Long> chunk : IdChunks.partition(orderIds, BULK_CHUNK_SIZE)) {
+            em.createQuery("select o.member.id, count(distinct o.id), sum(oi.orderPrice * oi.count) " +
+                            "from OrderItem oi join oi.order o " +
+                            "where o.id in :orderIds " +
+                            "group by o.member.id " +
+                            "order by o.member.id", Object[].class)
+                    .setParameter("orderIds", chunk)
+                    .getResultList()
+                    .forEach(row -> decrement((Long) row[0], ((Number) row[1]).intValue(), ((Number) row[2]).longValue()));
+        }
+    }
+
+    /**
+     * [재구성할 회원 id 조회] - member_id 키셋 (청크)
+     */
+    public List<Long> findMemberIds(Long lastMemberId, int limit) {
+        return em.createQuery("select m.id from Member m where m.id > :lastMemberId order by m.id", Long.class)
+                .setParameter("lastMemberId", lastMemberId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * [통계 재구성] - 회원 청크 <br/>
+     * 통계 row를 지우지 않고, 정규화 테이블(orders, order_item)로부터 계산한 값으로 update 한다. <br/>
+     * -> 재구성 중에도 row가 항상 있으므로 동시 주문/취소의 증감이 유실되지 않는다. (락은 청크의 통계 row에만) <br/>
+     * 통계 row가 없는 회원은 회원 row를 잠근 뒤 먼저 빈 row를 만든다. (increment의 insert와 같은 순서)
+     * @param memberIds 재구성할 회원 id (member_id 오름차순)
+     * @return 재구성된 회원 통계 수
+     */
+    public int reconcile(List<Long> memberIds) {
+        em.flush(); // 같은 트랜잭션에서 보류된 주문 insert/상태 변경을 먼저 반영
+        lockMembers(memberIds);
+        em.createNativeQuery("insert into member_order_stats (member_id, order_count, total_spend) " +
+                        "select m.member_id, 0, 0 from member m where m.member_id in (:memberIds) " +
+                        "and not exists (select 1 from member_order_stats s where s.member_id = m.member_id)")
+                .setParameter("memberIds", memberIds)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(MemberOrderStats.class)
+                .executeUpdate();
+        return em.createNativeQuery("update member_order_stats set " +
+                        "order_count = (select count(*) from orders o " +
+                        "where o.member_id = member_order_stats.member_id and o.status = :status), " +
+                        "total_spend = coalesce((select sum(oi.order_price * oi.count) from order_item oi " +
+                        "join orders o on o.order_id = oi.order_id " +
+                        "where o.member_id = member_order_stats.member_id and o.status = :status), 0), " +
+                        "last_order_date = (select max(o.order_date) from orders o " +
+                        "where o.member_id = member_order_stats.member_id) " +
+                        "where member_id in (:memberIds)")
+                .setParameter("status", OrderStatus.ORDER.name())
+                .setParameter("memberIds", memberIds)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(MemberOrderStats.class)
+                .executeUpdate();
+    }
+
+    /**
+     * 회원 row 잠금 (select ... for update, member_id 오름차순) - 통계 row insert 직렬화
+     */
+    private void lockMembers(List<Long> memberIds) {
+        em.createNativeQuery("select m.member_id from member m where m.member_id in (:memberIds) " +
+                        "order by m.member_id for update")
+                .setParameter("memberIds", memberIds)
+                .getResultList();
+    }
+}
@@ -1,10 +1,20 @@
 package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Member;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
 public interface MemberRepository extends JpaRepository<Member, Long> {
     List<Member> findByName(String name);
+
+    boolean existsByName(String name); // 엔티티를 읽지 않고 uk_member_name 인덱스로 존재 여부만 확인 (limit 1)
+
+    /**
+     * 회원 id, 이름 키셋 조회 (id 오름차순) - PK 인덱스 범위 스캔, count 쿼리 없음 <br/>
+     * Slice는 pageSize + 1 건을 조회해서 다음 페이지 여부(hasNext)를 판단한다.
+     */
+    Slice<MemberNameView> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
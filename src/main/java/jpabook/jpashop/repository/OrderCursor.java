@@ -0,0 +1,79 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 주문 키셋(Seek) 페이징 커서 <br/>
+ * 마지막으로 조회한 주문의 정렬 키(order_id, 선택적으로 orderDate)를 담는다. <br/>
+ * 클라이언트에는 Base64(URL-safe)로 인코딩된 불투명(opaque) 문자열로만 노출한다. <br/>
+ * ex) "12" -> id 정렬 / "12|2023-06-01T10:00:00" -> 주문일시 + id 정렬 / "12|" -> 주문일시가 없는(null) 주문까지 조회함
+ */
+@Getter
+public class OrderCursor {
+
+    private static final String DELIMITER = "|";
+
+    private final boolean byOrderDate; // 주문일시 정렬 여부 (false : order_id 정렬)
+    private final Long orderId; // 마지막으로 조회한 주문 id (첫 페이지 : null)
+    private final LocalDateTime orderDate; // 마지막으로 조회한 주문 일시 (id 정렬, 주문 일시가 없는 주문 : null)
+
+    private OrderCursor(boolean byOrderDate, Long orderId, LocalDateTime orderDate) {
+        this.byOrderDate = byOrderDate;
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+    }
+
+    /**
+     * 첫 페이지 커서
+     */
+    public static OrderCursor first(boolean byOrderDate) {
+        return new OrderCursor(byOrderDate, null, null);
+    }
+
+    /**
+     * 마지막으로 조회한 주문으로부터 다음 페이지 커서 생성
+     */
+    public OrderCursor next(Order last) {
+        return new OrderCursor(byOrderDate, last.getId(), byOrderDate ? last.getOrderDate() : null);
+    }
+
+    public boolean isFirst() {
+        return orderId == null;
+    }
+
+    /**
+     * 커서 -> 불투명 문자열
+     */
+    public String encode() {
+        String raw = byOrderDate
+                ? orderId + DELIMITER + (orderDate == null ? "" : orderDate.toString())
+                : String.valueOf(orderId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 불투명 문자열 -> 커서 <br/>
+     * 클라이언트가 임의로 조작한 값이면 IllegalArgumentException
+     */
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.indexOf(DELIMITER);
+            if (index < 0) {
+                return new OrderCursor(false, Long.valueOf(raw), null);
+            }
+            String orderDate = raw.substring(index + 1);
+            return new OrderCursor(true,
+                    Long.valueOf(raw.substring(0, index)),
+                    orderDate.isEmpty() ? null : LocalDateTime.parse(orderDate));
+        } catch (IllegalArgumentException | DateTimeParseException e) { // NumberFormatException 포함
+            throw new IllegalArgumentException("잘못된 커서 입니다. cursor=" + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderOutbox;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.LockOptions;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderOutboxRepository {
+
+    private static final int DELETE_CHUNK_SIZE = 512;
+
+    private final EntityManager em;
+
+    /**
+     * 이벤트 저장
+     */
+    public void save(OrderOutbox outbox) {
+        em.persist(outbox);
+    }
+
+    /**
+     * [발행할 이벤트 선점] (오래된 순) <br/>
+     * select ... for update skip locked - 다른 발행기가 잡고 있는 row는 기다리지 않고 건너뛴다. <br/>
+     * 여러 인스턴스의 발행기가 같은 이벤트를 동시에 발행하지 않는다. (skip locked를 지원하지 않는 DB는 for update로 기다림)
+     */
+    public List<OrderOutbox> claim(int limit) {
+        return em.createQuery("select o from OrderOutbox o order by o.id", OrderOutbox.class)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout", LockOptions.SKIP_LOCKED)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 발행된 이벤트 삭제
+     */
+    public int deleteAll(List<Long> ids) {
+        int deleted = 0;
+        for (List<Long> chunk : IdChunks.partition(ids, DELETE_CHUNK_SIZE)) {
+            deleted += em.createQuery("delete from OrderOutbox o where o.id in :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+        return deleted;
+    }
+
+    /**
+     * 발행되지 않은 이벤트 수
+     */
+    public long count() {
+        return em.createQuery("select count(o) from OrderOutbox o", Long.class)
+                .getSingleResult();
+    }
+}
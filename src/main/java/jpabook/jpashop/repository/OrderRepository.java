@@ -14,10 +14,14 @@ import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
+    private static final int BULK_CHUNK_SIZE = 512; // 일괄 처리 in 절 파라미터 최대 개수
+
     private final EntityManager em;
 
 
@@ -28,6 +32,15 @@ public class OrderRepository {
         em.persist(order);
     }
 
+    /**
+     * [영속성 컨텍스트 비우기] <br/>
+     * 쌓인 insert/update를 DB로 보내고(JDBC batch) 1차 캐시를 비운다. (대량 등록시 메모리/dirty checking 비용 제한)
+     */
+    public void flushAndClear() {
+        em.flush();
+        em.clear();
+    }
+
     /**
      * [주문 단건 조회]
      */
@@ -161,6 +174,103 @@ public class OrderRepository {
                 .getResultList();
     }
 
+    /**
+     * [주문 전체조회 API 3.2] - 키셋(Seek) 페이징 <br/>
+     * offset 방식은 앞의 row를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다. <br/>
+     * 마지막으로 조회한 정렬 키 이후부터 인덱스로 바로 탐색(seek)하므로 페이지 깊이와 무관하게 일정한 비용이 든다. <br/>
+     * - id 정렬 : where o.id > :orderId order by o.id (PK 인덱스) <br/>
+     * - 주문일시 정렬 : (o.orderDate, o.id) 복합 비교 (idx_orders_order_date_id 인덱스) <br/>
+     * xToOne 관계만 페치조인하므로 limit이 DB에 그대로 적용되고, <br/>
+     * orderItems는 기존과 동일하게 hibernate.default_batch_fetch_size로 in 쿼리 조회된다.
+     * @param cursor 마지막으로 조회한 주문 커서
+     * @param limit
+     * @return
+     */
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        String jpql = "select o from Order o " +
+                "join fetch o.member m " +
+                "join fetch o.delivery d";
+        boolean afterNullDate = cursor.isByOrderDate() && !cursor.isFirst() && cursor.getOrderDate() == null;
+        if (!cursor.isFirst()) {
+            if (!cursor.isByOrderDate()) {
+                jpql += " where o.id > :orderId";
+            } else if (afterNullDate) { // 주문일시 없는 주문(맨 앞)을 조회하는 중
+                jpql += " where (o.orderDate is null and o.id > :orderId) or o.orderDate is not null";
+            } else {
+                jpql += " where o.orderDate > :orderDate or (o.orderDate = :orderDate and o.id > :orderId)";
+            }
+        }
+        jpql += cursor.isByOrderDate() ? " order by o.orderDate asc nulls first, o.id" : " order by o.id";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(limit);
+        if (!cursor.isFirst()) {
+            query.setParameter("orderId", cursor.getOrderId());
+            if (cursor.isByOrderDate() && !afterNullDate) {
+                query.setParameter("orderDate", cursor.getOrderDate());
+            }
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * [취소 가능한 주문 id 조회] - 주문 id 목록 <br/>
+     * 주문 상태이고 배송완료(COMP)가 아닌 주문만 조회한다. (Order.cancel과 같은 규칙)
+     */
+    public List<Long> findCancelableIds(List<Long> orderIds) {
+        List<Long> result = new ArrayList<>();
+        for (List<Long> chunk : IdChunks.partition(orderIds, BULK_CHUNK_SIZE)) {
+            result.addAll(em.createQuery("select o.id from Order o join o.delivery d " +
+                            "where o.id in :orderIds and o.status = :status " +
+                            "and (d.status is null or d.status <> :comp) " +
+                            "order by o.id", Long.class)
+                    .setParameter("orderIds", chunk)
+                    .setParameter("status", OrderStatus.ORDER)
+                    .setParameter("comp", DeliveryStatus.COMP)
+                    .getResultList());
+        }
+        return result;
+    }
+
+    /**
+     * [주문 일괄 취소] - 조회 없이 update 한번 (in 절 조각마다) <br/>
+     * 조회 이후 다른 트랜잭션이 취소/배송완료한 주문은 변경되지 않는다. (반환된 row 수로 확인)
+     * @return 취소된 주문 수
+     */
+    public int cancelAll(List<Long> orderIds) {
+        int updated = 0;
+        for (List<Long> chunk : IdChunks.partition(orderIds, BULK_CHUNK_SIZE)) {
+            // bulk update SQL에는 테이블 별칭이 없으므로 상관 서브쿼리 대신 조각 안의 배송완료 주문을 in 서브쿼리로 제외
+            updated += em.createQuery("update Order o set o.status = :cancel " +
+                            "where o.id in :orderIds and o.status = :status " +
+                            "and o.id not in (select o2.id from Order o2 join o2.delivery d where o2.id in :orderIds and d.status = :comp)")
+                    .setParameter("cancel", OrderStatus.CANCEL)
+                    .setParameter("orderIds", chunk)
+                    .setParameter("status", OrderStatus.ORDER)
+                    .setParameter("comp", DeliveryStatus.COMP)
+                    .executeUpdate();
+        }
+        return updated;
+    }
+
+    /**
+     * [주문상품 수량 상품별 합계] <br/>
+     * 주문 여러건의 주문상품을 상품별로 합친다. (재고 복구를 상품당 한번으로)
+     * @return 상품 id -> 주문 수량 합계 (item_id 오름차순)
+     */
+    public SortedMap<Long, Integer> sumItemCounts(List<Long> orderIds) {
+        SortedMap<Long, Integer> counts = new TreeMap<>();
+        for (List<Long> chunk : IdChunks.partition(orderIds, BULK_CHUNK_SIZE)) {
+            em.createQuery("select oi.item.id, sum(oi.count) from OrderItem oi " +
+                            "where oi.order.id in :orderIds " +
+                            "group by oi.item.id", Object[].class)
+                    .setParameter("orderIds", chunk)
+                    .getResultList()
+                    .forEach(row -> counts.merge((Long) row[0], ((Number) row[1]).intValue(), Integer::sum));
+        }
+        return counts;
+    }
+
     //=== === === === === === === === queryDls 코드 구현=== === === === === === === ===//
 
 
@@ -214,6 +324,25 @@ public class OrderRepository {
                 .fetch();
 
     }
+    /**
+     * [주문 id 조회] - 검색조건 (queryDsl) <br/>
+     * 검색조건(회원 이름, 주문 상태)으로 찾은 주문 id를 모두 조회한다. (취소 가능 여부는 findCancelableIds로 다시 확인)
+     */
+    public List<Long> findIds(OrderSearch orderSearch) {
+        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+        QOrder order = QOrder.order;
+        QMember member = QMember.member;
+
+        return queryFactory
+                .select(order.id)
+                .from(order)
+                .join(order.member, member)
+                .where(orderStatusEq(orderSearch.getOrderStatus(), order),
+                        memberNameEq(orderSearch.getMemberName(), member))
+                .orderBy(order.id.asc())
+                .fetch();
+    }
+
     private BooleanExpression orderStatusEq(OrderStatus orderStatus, QOrder order) { // Predicate도 가능
         return orderStatus == null ? null : order.status.eq(orderStatus); // 조건절에 null이 오면 무시된다.
     }
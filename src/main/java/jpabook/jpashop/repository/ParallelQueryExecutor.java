@@ -0,0 +1,74 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.SqlStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * [병렬 조회 실행기] <br/>
+ * 서로 의존하지 않는 조회 쿼리를 별도의 커넥션(각자의 읽기전용 트랜잭션)에서 동시에 실행한다. <br/>
+ * 작업 스레드 수는 커넥션 풀 크기보다 충분히 작게 유지해야 한다. <br/>
+ * (요청 스레드가 OSIV로 커넥션을 잡은채 작업 스레드를 기다리므로, 풀이 고갈되면 커넥션 대기 타임아웃이 발생한다.) <br/>
+ * 큐가 가득 차면 호출 스레드에서 그대로 실행한다. (CallerRunsPolicy - 호출 스레드의 트랜잭션에 참여)
+ */
+@Component
+public class ParallelQueryExecutor {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolExecutor executor;
+
+    public ParallelQueryExecutor(PlatformTransactionManager transactionManager,
+                                 @Value("${jpashop.query.parallel-threads:4}") int threads,
+                                 @Value("${jpashop.query.parallel-queue-capacity:256}") int queueCapacity) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("parallel-query-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(threads, threads,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 조회 쿼리를 작업 스레드의 읽기전용 트랜잭션에서 실행한다. <br/>
+     * 작업 스레드의 쿼리도 요청의 SQL 통계(X-Sql-*)에 집계된다.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(
+                SqlStatistics.propagate(() -> readOnlyTransaction.execute(status -> query.get())), executor);
+    }
+
+    /**
+     * 결과 대기 <br/>
+     * 작업 스레드에서 발생한 예외는 CompletionException을 벗겨서 그대로 던진다.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
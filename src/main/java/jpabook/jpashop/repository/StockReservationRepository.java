@@ -0,0 +1,81 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.item.StockReservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class StockReservationRepository {
+
+    private static final int DELETE_CHUNK_SIZE = 512;
+
+    private final EntityManager em;
+
+    /**
+     * 예약 기록 저장
+     */
+    public void save(StockReservation reservation) {
+        em.persist(reservation);
+    }
+
+    /**
+     * [실제 남은 재고 조회] <br/>
+     * 상품 재고에서 반영되지 않은 예약 합계를 뺀다. <br/>
+     * 예약 반영(상품 갱신 + 기록 삭제)과 어긋나지 않도록 반드시 한 문장(같은 스냅샷)으로 읽는다.
+     * @return 남은 재고 (상품이 없으면 null)
+     */
+    public Integer findAvailableStock(Long itemId) {
+        List<?> available = em.createNativeQuery("select i.stock_quantity - coalesce(" +
+                        "(select sum(r.quantity) from stock_reservation r where r.item_id = i.item_id), 0) " +
+                        "from item i where i.item_id = :itemId")
+                .setParameter("itemId", itemId)
+                .getResultList();
+        return available.isEmpty() ? null : ((Number) available.get(0)).intValue();
+    }
+
+    /**
+     * [전체 상품 남은 재고 조회] - 한 문장 (같은 스냅샷)
+     * @return 상품 id -> 남은 재고
+     */
+    public Map<Long, Integer> findAllAvailableStock() {
+        List<?> rows = em.createNativeQuery("select i.item_id, i.stock_quantity - coalesce(" +
+                        "(select sum(r.quantity) from stock_reservation r where r.item_id = i.item_id), 0) " +
+                        "from item i")
+                .getResultList();
+        Map<Long, Integer> result = new HashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            result.put(((Number) columns[0]).longValue(), ((Number) columns[1]).intValue());
+        }
+        return result;
+    }
+
+    /**
+     * 반영할 예약 기록 조회 (오래된 순)
+     */
+    public List<StockReservation> findPending(int limit) {
+        return em.createQuery("select r from StockReservation r order by r.id", StockReservation.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 반영된 예약 기록 삭제 <br/>
+     * 조회한 id로만 삭제한다. (조회 이후 커밋된 기록은 다음 반영 대상)
+     */
+    public int deleteAll(List<Long> ids) {
+        int deleted = 0;
+        for (List<Long> chunk : IdChunks.partition(ids, DELETE_CHUNK_SIZE)) {
+            deleted += em.createQuery("delete from StockReservation r where r.id in :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * [플랫 조회 결과 접기(fold)] <br/>
+ * order_id 순으로 정렬된 OrderFlatDto row를 한 건씩 받아서 주문 단위의 OrderQueryDto로 접는다. <br/>
+ * 주문 id가 바뀌는 순간 이전 주문이 완성되므로 즉시 consumer로 넘긴다. <br/>
+ * 한 번에 주문 하나의 row만 들고 있으므로 전체 결과 크기와 무관하게 메모리 사용량이 일정하다. <br/>
+ * (정렬되지 않은 row를 넘기면 같은 주문이 여러개로 쪼개진다.)
+ */
+public class OrderFlatFolder {
+
+    private final Consumer<OrderQueryDto> consumer;
+    private final List<OrderItemQueryDto> items = new ArrayList<>(); // 현재 주문의 주문상품 (재사용 버퍼)
+    private OrderQueryDto current; // 현재 접고있는 주문
+
+    public OrderFlatFolder(Consumer<OrderQueryDto> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * row 한 건 접기 <br/>
+     * 주문 id가 바뀌면 이전 주문을 완성해서 넘기고 새 주문을 시작한다.
+     */
+    public void accept(OrderFlatDto row) {
+        if (current == null || !current.getOrderId().equals(row.getOrderId())) {
+            flush();
+            current = new OrderQueryDto(row.getOrderId(),
+                                        row.getName(),
+                                        row.getOrderDate(),
+                                        row.getOrderStatus(),
+                                        row.getAddress());
+        }
+        items.add(new OrderItemQueryDto(row.getOrderId(),
+                                        row.getItemName(),
+                                        row.getOrderPrice(),
+                                        row.getCount()));
+    }
+
+    /**
+     * 마지막 주문 완성 <br/>
+     * 모든 row를 넘긴 뒤 반드시 호출해야 한다.
+     */
+    public void finish() {
+        flush();
+    }
+
+    private void flush() {
+        if (current == null) {
+            return;
+        }
+        current.setOrderItems(new ArrayList<>(items)); // 주문상품 수에 딱 맞는 크기로 복사
+        items.clear();
+        consumer.accept(current);
+        current = null;
+    }
+}
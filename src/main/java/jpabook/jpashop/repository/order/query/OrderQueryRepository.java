@@ -1,12 +1,20 @@
 package jpabook.jpashop.repository.order.query;
 
+import jpabook.jpashop.repository.IdChunks;
+import jpabook.jpashop.repository.ParallelQueryExecutor;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 주문 조회 V4 & V5 <br/>
@@ -16,7 +24,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
+    public static final int MAX_ORDER_ID_RANGE = 1000; // V5.1 주문 id 범위 최대 크기 (한번에 메모리로 읽는 주문 수 상한)
+
     private final EntityManager em;
+    private final ParallelQueryExecutor parallelQueryExecutor;
+
+    @Value("${jpashop.query.in-chunk-size:512}")
+    private int inChunkSize; // in 절 파라미터 최대 개수
+    @Value("${jpashop.query.parallel-chunks:false}")
+    private boolean parallelChunks; // in 절 조각 병렬 조회 여부
 
     /**
      * 주문 조회 V4 - 컬렉션 Dto 직접 조회 <br/>
@@ -86,6 +102,67 @@ public class OrderQueryRepository {
         return result;
     }
 
+    /**
+     * 주문 조회 V5.1 - 컬렉션 Dto 직접 조회 [최적화 + 동시 조회] <br/>
+     * 주문 id 범위를 이미 알고 있으면(페이징, 범위 필터 등) 주문 조회와 주문상품 조회는 서로 의존하지 않는다. <br/>
+     * 주문상품은 작업 스레드(별도 커넥션)에서, 주문은 현재 스레드에서 동시에 조회한 뒤 합친다. <br/>
+     * -> 응답시간이 두 쿼리의 합이 아니라 느린 쿼리 하나의 시간에 가까워진다. <br/>
+     * 주의 : 두 쿼리는 서로 다른 트랜잭션(스냅샷)이므로, 그 사이에 생성된 주문은 주문상품이 비어있을 수 있다. (빈 리스트) <br/>
+     * 범위가 뒤집혔거나 MAX_ORDER_ID_RANGE 보다 크면 IllegalArgumentException
+     * @param fromOrderId 시작 주문 id (포함, 0 이상)
+     * @param toOrderId 끝 주문 id (포함)
+     */
+    public List<OrderQueryDto> findAllByDto_Optimization(Long fromOrderId, Long toOrderId) {
+        if (fromOrderId == null || toOrderId == null || fromOrderId < 0 || fromOrderId > toOrderId) {
+            throw new IllegalArgumentException("잘못된 주문 id 범위 입니다. fromId=" + fromOrderId + ", toId=" + toOrderId);
+        }
+        if (toOrderId - fromOrderId >= MAX_ORDER_ID_RANGE) {
+            throw new IllegalArgumentException("주문 id 범위는 최대 " + MAX_ORDER_ID_RANGE + " 입니다.");
+        }
+        CompletableFuture<Map<Long, List<OrderItemQueryDto>>> orderItemMapFuture =
+                parallelQueryExecutor.supplyAsync(() -> findOrderItemMap(fromOrderId, toOrderId));
+        // ^ 주문상품 조회 - 작업 스레드
+        List<OrderQueryDto> result = findOrders(fromOrderId, toOrderId);
+        // ^ 주문 조회 - 현재 스레드
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = ParallelQueryExecutor.join(orderItemMapFuture);
+        result.forEach(orderQueryDto -> orderQueryDto.setOrderItems(
+                orderItemMap.getOrDefault(orderQueryDto.getOrderId(), Collections.emptyList())));
+        return result;
+    }
+
+    /**
+     * [orders 주문 조회] - 주문 id 범위 (PK 범위 스캔)
+     */
+    private List<OrderQueryDto> findOrders(Long fromOrderId, Long toOrderId) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address) " +
+                        "from Order o " +
+                        "join o.member m " +
+                        "join o.delivery d " +
+                        "where o.id between :fromOrderId and :toOrderId " +
+                        "order by o.id", OrderQueryDto.class)
+                .setParameter("fromOrderId", fromOrderId)
+                .setParameter("toOrderId", toOrderId)
+                .getResultList();
+    }
+
+    /**
+     * [orderItems 주문상품 조회] - 주문 id 범위 (idx_order_item_order_id 범위 스캔) <br/>
+     * 주문 id 목록 없이 범위로 조회하므로 주문 조회 결과를 기다릴 필요가 없다.
+     */
+    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(Long fromOrderId, Long toOrderId) {
+        return em.createQuery("select " +
+                        "new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count) " +
+                        "from OrderItem oi " +
+                        "join oi.item i " +
+                        "where oi.order.id between :fromOrderId and :toOrderId", OrderItemQueryDto.class)
+                .setParameter("fromOrderId", fromOrderId)
+                .setParameter("toOrderId", toOrderId)
+                .getResultList()
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+    }
+
     /**
      * 주문 조회한 목록의 회원 id를 리스트로 반환
      */
@@ -97,40 +174,85 @@ public class OrderQueryRepository {
 
     /**
      * [orderItems 주문상품 조회] <br/>
-     * In 쿼리로 한번에 조회
+     * In 쿼리로 조회 - 주문 id 목록을 in-chunk-size 단위로 나눠서 조회한 뒤 합친다. <br/>
+     * (마지막 조각은 in_clause_parameter_padding으로 2의 거듭제곱 크기로 채워져 statement가 재사용된다.) <br/>
+     * parallel-chunks=true 이면 첫 조각은 현재 스레드에서, 나머지 조각은 별도 커넥션에서 동시에 조회한다.
      * 반환은 Long, List 제너릭타입으로 반환한다.
      * @return : orderId를 기준으로 그룹핑하여 Map의 Key로 반환
      * @return : orderItems를 OrderItemQueryDto타입의 리스트로 변환하여 Map의 Value로 변환
      * ex) id 1번 - 1번 주문리스트 / id 2번 - 2번 주문리스트 ...
      */
     private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery("select " +
+        List<List<Long>> chunks = IdChunks.partition(orderIds, inChunkSize);
+        List<OrderItemQueryDto> orderItems = new ArrayList<>();
+        if (parallelChunks && chunks.size() > 1) {
+            List<CompletableFuture<List<OrderItemQueryDto>>> futures = chunks.subList(1, chunks.size()).stream()
+                    .map(chunk -> parallelQueryExecutor.supplyAsync(() -> findOrderItemsIn(chunk)))
+                    .collect(Collectors.toList());
+            orderItems.addAll(findOrderItemsIn(chunks.get(0)));
+            futures.forEach(future -> orderItems.addAll(ParallelQueryExecutor.join(future)));
+        } else {
+            chunks.forEach(chunk -> orderItems.addAll(findOrderItemsIn(chunk)));
+        }
+        return orderItems.stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto -> {
+                    return OrderItemQueryDto.getOrderId();
+                }));
+    }
+
+    /**
+     * [orderItems 주문상품 조회] <br/>
+     * 주문 id 조각 하나에 대한 In 쿼리
+     */
+    private List<OrderItemQueryDto> findOrderItemsIn(List<Long> orderIds) {
+        return em.createQuery("select " +
                         "new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count) " +
                         "from OrderItem oi " +
                         "join oi.item i " +
                         "where oi.order.id in :orderIds", OrderItemQueryDto.class)
                 .setParameter("orderIds", orderIds)
                 .getResultList();
-        return orderItems.stream()
-                .collect(Collectors.groupingBy(OrderItemQueryDto -> {
-                    return OrderItemQueryDto.getOrderId();
-                }));
     }
 
     //=== === === === === === === === === === === === 컬렉션 조회 [플랫 최적화] 시작 === === === === === === === === === === === ===//
 
     /**
-     * 주문 조회 V6 - 컬렉션 Dto 직접 조회 [플랫 최적화]
+     * 플랫 조회 JPQL (Order x OrderItem 전체 조인)
+     */
+    private static final String FLAT_QUERY = "select " +
+            "new jpabook.jpashop.repository.order.query.OrderFlatDto" +
+            "(o.id, m.name, o.orderDate, d.address, o.status, i.name, oi.orderPrice, oi.count) " +
+            "from Order o " +
+            "join o.member m " +
+            "join o.delivery d " +
+            "join o.orderItems oi " +
+            "join oi.item i";
+
+    /**
+     * 스트리밍 조회시 JDBC fetch size (DB에서 한번에 가져오는 row 수)
+     */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * 주문 조회 V6 - 컬렉션 Dto 직접 조회 [플랫 최적화] <br/>
+     * 같은 주문의 row가 인접하도록 order_id 순으로 정렬한다. (OrderFlatFolder 단일 순회 접기)
      */
     public List<OrderFlatDto> findAllByDto_flat() {
-        return em.createQuery("select " +
-                "new jpabook.jpashop.repository.order.query.OrderFlatDto" +
-                "(o.id, m.name, o.orderDate, d.address, o.status, i.name, oi.orderPrice, oi.count) " +
-                "from Order o " +
-                "join o.member m " +
-                "join o.delivery d " +
-                "join o.orderItems oi " +
-                "join oi.item i", OrderFlatDto.class)
+        return em.createQuery(FLAT_QUERY + " order by o.id", OrderFlatDto.class)
                 .getResultList();
     }
+
+    /**
+     * 주문 조회 V6 - 컬렉션 Dto 직접 조회 [플랫 스트리밍] <br/>
+     * 전체 조인 결과를 List로 올리지 않고 JDBC fetch size 단위로 커서를 넘기며 읽는다. <br/>
+     * OrderFlatFolder로 주문 단위로 접을 수 있도록 order_id 순으로 정렬한다. <br/>
+     * DTO 조회이므로 영속성 컨텍스트에 엔티티가 쌓이지 않는다. <br/>
+     * 주의 : 트랜잭션 안에서 사용하고, 반드시 close 해야한다. (try-with-resources)
+     */
+    public Stream<OrderFlatDto> streamAllByDto_flat() {
+        return em.createQuery(FLAT_QUERY + " order by o.id", OrderFlatDto.class)
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
 }
@@ -0,0 +1,103 @@
+package jpabook.jpashop.repository.order.simplequery;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.repository.IdChunks;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 주문 요약 조회 모델(order_summary) 리포지토리 <br/>
+ * 심플 주문 조회 V4는 조인 없이 order_summary 테이블만 읽는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    private static final int BULK_CHUNK_SIZE = 512; // 일괄 변경 in 절 파라미터 최대 개수
+
+    private final EntityManager em;
+
+    /**
+     * 주문 요약 저장
+     */
+    public void save(OrderSummary orderSummary) {
+        em.persist(orderSummary);
+    }
+
+    /**
+     * 주문 요약 단건 조회
+     */
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    /**
+     * 주문 요약 목록 조회 - 단일 테이블 PK 순 스캔 (조인 없음)
+     */
+    public List<OrderSimpleQueryDto> findOrderDtos() {
+        return em.createQuery(
+                "select " +
+                        "new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(s.orderId, s.memberName, s.orderDate, s.status, s.address) " +
+                        "from OrderSummary s " +
+                        "order by s.orderId", OrderSimpleQueryDto.class)
+                .getResultList();
+    }
+
+    /**
+     * 주문 상태 변경 (주문 취소) - 조회 없이 update 한번
+     */
+    public int updateStatus(Long orderId, OrderStatus status) {
+        return em.createQuery("update OrderSummary s set s.status = :status where s.orderId = :orderId")
+                .setParameter("status", status)
+                .setParameter("orderId", orderId)
+                .executeUpdate();
+    }
+
+    /**
+     * 주문 상태 일괄 변경 (주문 일괄 취소) - in 절 조각마다 update 한번
+     */
+    public int updateStatus(List<Long> orderIds, OrderStatus status) {
+        int updated = 0;
+        for (List<Long> chunk : IdChunks.partition(orderIds, BULK_CHUNK_SIZE)) {
+            updated += em.createQuery("update OrderSummary s set s.status = :status where s.orderId in :orderIds")
+                    .setParameter("status", status)
+                    .setParameter("orderIds", chunk)
+                    .executeUpdate();
+        }
+        return updated;
+    }
+
+    /**
+     * 회원명 변경 반영
+     */
+    public int updateMemberName(Long memberId, String memberName) {
+        return em.createQuery("update OrderSummary s set s.memberName = :memberName where s.memberId = :memberId")
+                .setParameter("memberName", memberName)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * [주문 요약 재구성] <br/>
+     * 정규화 테이블(orders, member, delivery)로부터 order_summary 전체를 다시 채운다. (insert ... select 한번) <br/>
+     * 네이티브 쿼리는 영향받는 엔티티를 알려주지 않으면 2차 캐시 전체를 비우므로 OrderSummary만 동기화 대상으로 지정한다.
+     * @return 재구성된 주문 요약 수
+     */
+    public int rebuild() {
+        em.createQuery("delete from OrderSummary").executeUpdate();
+        return em.createNativeQuery(
+                "insert into order_summary (order_id, member_id, member_name, order_date, status, city, street, zipcode) " +
+                        "select o.order_id, m.member_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode " +
+                        "from orders o " +
+                        "join member m on m.member_id = o.member_id " +
+                        "join delivery d on d.delivery_id = o.delivery_id")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(OrderSummary.class)
+                .executeUpdate();
+    }
+}
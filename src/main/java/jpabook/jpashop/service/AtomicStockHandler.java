@@ -0,0 +1,31 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.StockHandler;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * [조건부 update 재고 증감] - jpashop.order.stock-mode=atomic <br/>
+ * 상품 엔티티의 재고를 읽고 바꾸는 대신 DB에서 update 한번으로 재고를 검사하고 줄인다. <br/>
+ * 버전 충돌/재시도가 없고, 인기상품 row 락은 update부터 커밋까지만 잡힌다. <br/>
+ * 단, 영속성 컨텍스트의 Item 엔티티 재고는 갱신되지 않는다. (같은 트랜잭션에서 재고를 다시 읽으려면 조회 쿼리를 사용)
+ */
+@RequiredArgsConstructor
+public class AtomicStockHandler implements StockHandler {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public void removeStock(Item item, int quantity) {
+        if (itemRepository.decreaseStock(item.getId(), quantity) == 0) { // 재고 부족 -> 0 row
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
+    @Override
+    public void addStock(Item item, int quantity) {
+        itemRepository.increaseStock(item.getId(), quantity);
+    }
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * [주문 일괄 취소 결과] <br/>
+ * 취소된 주문 id와, 요청했지만 취소하지 못한 주문 id(없는 주문, 이미 취소된 주문, 배송완료된 주문)
+ */
+@Getter
+@AllArgsConstructor
+public class BulkCancelResult {
+    private final List<Long> cancelledIds;
+    private final List<Long> rejectedIds;
+}
@@ -0,0 +1,215 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.DeliveryJobCheckpoint;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * [배송완료 처리 작업] - 배송준비(READY) -> 배송완료(COMP) 일괄 변경 <br/>
+ * 조건(주문일시 이전, 배송지 우편번호)에 맞는 배송을 delivery_id 키셋 청크(chunk-size 건)로 나눠서 처리한다. <br/>
+ * - StatelessSession : 영속성 컨텍스트/1차 캐시/변경감지가 없으므로 몇십만 건을 처리해도 메모리가 청크 크기 이상 늘지 않는다. <br/>
+ * - 청크마다 id 조회 + in 절 update 한번 + 진행 기록 갱신을 한 트랜잭션으로 커밋한다. <br/>
+ *   -> 락은 청크의 delivery row에만, 청크 하나 동안만 잡는다. (orders는 조회만 하므로 락 없음) <br/>
+ * - 진행 기록(delivery_job_checkpoint)이 청크와 함께 커밋되므로 중간에 멈춰도 같은 조건으로 다시 실행하면 이어서 처리한다. <br/>
+ *   완료된 진행 기록은 다시 실행할때 초기화하므로 같은 조건의 재실행은 그 사이 생긴 배송을 처음부터 처리한다. <br/>
+ * 매일 실행(cron)은 [order-age-days 일 전 0시 이전 주문]을 조건으로 하고, 작업 이름에 날짜가 들어가므로 하루 한번만 처리된다.
+ */
+@Slf4j
+@Component
+public class DeliveryCompletionJob {
+
+    private static final String JOB_NAME_PREFIX = "delivery-complete";
+    private static final Pattern ZIPCODE_PATTERN = Pattern.compile("[0-9A-Za-z-]{1,20}"); // 작업 이름(job_name 200자)에 들어가므로 길이 제한
+
+    private final SessionFactory sessionFactory;
+    private final OrderChangeTracker orderChangeTracker;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final int orderAgeDays;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DeliveryCompletionJob(EntityManagerFactory entityManagerFactory,
+                                 OrderChangeTracker orderChangeTracker,
+                                 @Value("${jpashop.delivery.complete-job.chunk-size:1000}") int chunkSize,
+                                 @Value("${jpashop.delivery.complete-job.pause-ms:0}") long pauseMillis,
+                                 @Value("${jpashop.delivery.complete-job.order-age-days:3}") int orderAgeDays) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.orderChangeTracker = orderChangeTracker;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.orderAgeDays = orderAgeDays;
+    }
+
+    /**
+     * [매일 실행] - jpashop.delivery.complete-job.cron (기본값 "-" : 실행하지 않음)
+     */
+    @Scheduled(cron = "${jpashop.delivery.complete-job.cron:-}")
+    public void runNightly() {
+        DeliveryJobResult result = run(null, LocalDate.now().minusDays(orderAgeDays).atStartOfDay());
+        log.info("delivery complete job {} : {} deliveries in {} ms", result.getJobName(), result.getUpdatedCount(), result.getElapsedMillis());
+    }
+
+    /**
+     * [배송완료 처리] <br/>
+     * 주문 상태(ORDER)인 주문의 배송준비 배송을 배송완료로 바꾼다. 조건은 null이면 적용하지 않는다. <br/>
+     * 조건이 모두 없으면 전체 배송준비 배송이 배송완료되므로 IllegalArgumentException (잘못된 우편번호도 IllegalArgumentException)
+     * @param zipcode 배송지 우편번호 (영문/숫자/'-' 20자 이하)
+     * @param orderedBefore 이 시각 이전 주문만
+     * @return 처리 결과
+     */
+    public DeliveryJobResult run(String zipcode, LocalDateTime orderedBefore) {
+        if (!StringUtils.hasText(zipcode) && orderedBefore == null) {
+            throw new IllegalArgumentException("배송완료 처리 조건(우편번호, 주문일시)이 하나 이상 필요합니다.");
+        }
+        if (StringUtils.hasText(zipcode) && !ZIPCODE_PATTERN.matcher(zipcode).matches()) {
+            throw new IllegalArgumentException("잘못된 우편번호 입니다.");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("배송완료 처리 작업이 이미 실행중입니다.");
+        }
+        long start = System.nanoTime();
+        String jobName = jobName(zipcode, orderedBefore);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            DeliveryJobCheckpoint checkpoint = loadCheckpoint(session, jobName);
+            boolean resumed = checkpoint.getLastDeliveryId() > 0 && !checkpoint.isCompleted();
+            long updated = 0;
+            while (!checkpoint.isCompleted()) {
+                int chunkUpdated = processChunk(session, checkpoint, zipcode, orderedBefore);
+                updated += chunkUpdated;
+                if (chunkUpdated > 0) {
+                    orderChangeTracker.markChanged(); // 청크마다 커밋되므로 바로 반영
+                }
+                pause();
+            }
+            return new DeliveryJobResult(jobName, resumed, updated, checkpoint.getUpdatedCount(),
+                    checkpoint.getLastDeliveryId(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 진행 기록 조회 - 없으면 새로 저장, 완료된 기록이면 초기화 (새 실행)
+     */
+    private DeliveryJobCheckpoint loadCheckpoint(StatelessSession session, String jobName) {
+        Transaction tx = session.beginTransaction();
+        try {
+            DeliveryJobCheckpoint checkpoint = (DeliveryJobCheckpoint) session.get(DeliveryJobCheckpoint.class, jobName);
+            if (checkpoint == null) {
+                checkpoint = DeliveryJobCheckpoint.createDeliveryJobCheckpoint(jobName);
+                session.insert(checkpoint);
+            } else if (checkpoint.isCompleted()) {
+                checkpoint.restart();
+                session.update(checkpoint);
+            }
+            tx.commit();
+            return checkpoint;
+        } catch (RuntimeException e) {
+            rollback(tx);
+            throw e;
+        }
+    }
+
+    /**
+     * [청크 하나 처리] - 한 트랜잭션 <br/>
+     * 마지막으로 처리한 delivery_id 다음부터 chunk-size 건의 id를 조회하고(PK 인덱스 범위 스캔), in 절 update 한번으로 바꾼다. <br/>
+     * 조회와 update 사이에 바뀐 배송/주문(배송완료, 주문취소)은 update 조건에서 다시 걸러진다.
+     * @return 배송완료로 바꾼 배송 수
+     */
+    private int processChunk(StatelessSession session, DeliveryJobCheckpoint checkpoint, String zipcode, LocalDateTime orderedBefore) {
+        Transaction tx = session.beginTransaction();
+        try {
+            List<Long> deliveryIds = findChunk(session, checkpoint.getLastDeliveryId(), zipcode, orderedBefore);
+            int updated = 0;
+            if (deliveryIds.isEmpty()) {
+                checkpoint.complete();
+            } else {
+                // 주문 상태 재확인 - bulk update SQL에는 테이블 별칭이 없으므로 상관 서브쿼리(o.delivery = d) 대신 in 서브쿼리로 확인
+                updated = session.createQuery("update Delivery d set d.status = :comp " +
+                                "where d.id in :ids and d.status = :ready " +
+                                "and d.id in (select o.delivery.id from Order o where o.delivery.id in :ids and o.status = :orderStatus)")
+                        .setParameter("comp", DeliveryStatus.COMP)
+                        .setParameter("ready", DeliveryStatus.READY)
+                        .setParameter("orderStatus", OrderStatus.ORDER)
+                        .setParameterList("ids", deliveryIds)
+                        .executeUpdate();
+                checkpoint.advance(deliveryIds.get(deliveryIds.size() - 1), updated);
+            }
+            session.update(checkpoint); // 청크와 같은 트랜잭션으로 진행 기록 커밋
+            tx.commit();
+            return updated;
+        } catch (RuntimeException e) {
+            rollback(tx);
+            throw e;
+        }
+    }
+
+    private List<Long> findChunk(StatelessSession session, Long lastDeliveryId, String zipcode, LocalDateTime orderedBefore) {
+        String jpql = "select d.id from Delivery d" +
+                " where d.id > :lastId" +
+                " and d.status = :ready" +
+                (StringUtils.hasText(zipcode) ? " and d.address.zipcode = :zipcode" : "") +
+                " and exists (select o.id from Order o where o.delivery = d and o.status = :orderStatus" +
+                (orderedBefore != null ? " and o.orderDate < :orderedBefore" : "") + ")" +
+                " order by d.id";
+        Query<Long> query = session.createQuery(jpql, Long.class)
+                .setParameter("lastId", lastDeliveryId)
+                .setParameter("ready", DeliveryStatus.READY)
+                .setParameter("orderStatus", OrderStatus.ORDER)
+                .setMaxResults(chunkSize);
+        if (StringUtils.hasText(zipcode)) {
+            query.setParameter("zipcode", zipcode);
+        }
+        if (orderedBefore != null) {
+            query.setParameter("orderedBefore", orderedBefore);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * 작업 이름 - 같은 조건이면 같은 이름 (진행 기록 키)
+     */
+    private String jobName(String zipcode, LocalDateTime orderedBefore) {
+        return JOB_NAME_PREFIX +
+                ":zipcode=" + (StringUtils.hasText(zipcode) ? zipcode : "*") +
+                ":orderedBefore=" + (orderedBefore != null ? orderedBefore : "*");
+    }
+
+    /**
+     * 청크 사이 대기 - 운영 트래픽에 커넥션/락을 양보
+     */
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("배송완료 처리 작업이 중단되었습니다.", e);
+        }
+    }
+
+    private void rollback(Transaction tx) {
+        if (tx.isActive()) {
+            tx.rollback();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 배송완료 처리 작업 결과
+ */
+@Getter
+@AllArgsConstructor
+public class DeliveryJobResult {
+    private final String jobName;
+    private final boolean resumed; // 이전 실행의 진행 기록부터 이어서 처리했는지
+    private final long updatedCount; // 이번 실행에서 배송완료로 바꾼 배송 수
+    private final long totalUpdatedCount; // 작업 전체(이전 실행 포함)에서 바꾼 배송 수
+    private final Long lastDeliveryId;
+    private final long elapsedMillis;
+}
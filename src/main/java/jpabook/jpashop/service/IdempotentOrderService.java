@@ -0,0 +1,144 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.IdempotencyKey;
+import jpabook.jpashop.exception.IdempotencyKeyMismatchException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * [멱등 주문] - Idempotency-Key 헤더 <br/>
+ * 타임아웃 후 재시도된 주문 요청이 중복 주문을 만들지 않도록, 같은 키의 요청에는 처음 만들어진 주문 id를 그대로 돌려준다. <br/>
+ * 1. 메모리 LRU (최근 키 cache-size 개) -> 재시도 대부분은 DB 조회 없이 끝난다. <br/>
+ * 2. 같은 키로 동시에 들어온 요청은 먼저 온 요청의 결과를 기다렸다가 같이 받는다. (in-flight) <br/>
+ * 3. LRU에 없으면 idempotency_key 테이블 조회 -> 없으면 주문과 키를 한 트랜잭션으로 저장한다. <br/>
+ * 4. 다른 서버가 같은 키로 먼저 커밋했으면 키 저장이 PK 중복으로 실패하므로(주문은 롤백) 저장된 주문 id를 돌려준다. <br/>
+ * 키는 요청 내용(회원/상품/수량)과 함께 저장되고, 같은 키로 다른 내용을 요청하면 IdempotencyKeyMismatchException(422)으로 거절한다. <br/>
+ * 보관 기간(retention-hours)이 지난 키는 매일(purge-cron) 삭제한다. <br/>
+ * 키가 없는 요청은 기존대로 주문한다. (OrderBatcher) 키가 있는 요청은 그룹 커밋으로 묶지 않는다.
+ */
+@Slf4j
+@Component
+public class IdempotentOrderService {
+
+    private final OrderService orderService;
+    private final OrderBatcher orderBatcher;
+    private final long retentionHours;
+    private final Map<String, IdempotencyKey> recent; // 멱등키 -> 저장된 키 (LRU)
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyKey>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentOrderService(OrderService orderService,
+                                  OrderBatcher orderBatcher,
+                                  @Value("${jpashop.order.idempotency.cache-size:10000}") int cacheSize,
+                                  @Value("${jpashop.order.idempotency.retention-hours:24}") long retentionHours) {
+        this.orderService = orderService;
+        this.orderBatcher = orderBatcher;
+        this.retentionHours = retentionHours;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<String, IdempotencyKey>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyKey> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * [주문] <br/>
+     * 같은 멱등키로 이미 주문했으면 상품/주문을 건드리지 않고 처음 주문의 id를 돌려준다. <br/>
+     * 같은 키로 다른 내용을 요청했으면 IdempotencyKeyMismatchException
+     * @param idempotencyKey Idempotency-Key 헤더 (없으면 null)
+     * @return 주문 완료된 주문ID
+     */
+    public Long order(String idempotencyKey, Long memberId, Long itemId, int count) {
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return orderBatcher.order(memberId, itemId, count);
+        }
+        if (idempotencyKey.length() > IdempotencyKey.MAX_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key는 " + IdempotencyKey.MAX_LENGTH + "자를 넘을 수 없습니다.");
+        }
+        IdempotencyKey cached = recent.get(idempotencyKey);
+        if (cached != null) {
+            return verify(cached, memberId, itemId, count);
+        }
+
+        CompletableFuture<IdempotencyKey> future = new CompletableFuture<>();
+        CompletableFuture<IdempotencyKey> running = inFlight.putIfAbsent(idempotencyKey, future);
+        if (running != null) {
+            return verify(join(running), memberId, itemId, count); // 같은 키로 처리중인 요청의 결과를 같이 받는다.
+        }
+        try {
+            IdempotencyKey stored = findOrCreate(idempotencyKey, memberId, itemId, count);
+            recent.put(idempotencyKey, stored);
+            future.complete(stored);
+            return verify(stored, memberId, itemId, count);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, future);
+        }
+    }
+
+    /**
+     * 저장된 키 조회 - 없으면 주문하고 키 저장
+     */
+    private IdempotencyKey findOrCreate(String idempotencyKey, Long memberId, Long itemId, int count) {
+        IdempotencyKey stored = orderService.findIdempotencyKey(idempotencyKey);
+        if (stored != null) {
+            return stored;
+        }
+        try {
+            Long orderId = orderService.order(memberId, itemId, count, idempotencyKey);
+            return IdempotencyKey.createIdempotencyKey(idempotencyKey, orderId, memberId, itemId, count);
+        } catch (DataIntegrityViolationException e) {
+            stored = orderService.findIdempotencyKey(idempotencyKey); // 다른 서버가 먼저 저장
+            if (stored == null) {
+                throw e;
+            }
+            return stored;
+        }
+    }
+
+    /**
+     * 저장된 키의 요청 내용과 같으면 주문 id, 다르면 IdempotencyKeyMismatchException
+     */
+    private Long verify(IdempotencyKey stored, Long memberId, Long itemId, int count) {
+        if (!stored.matches(memberId, itemId, count)) {
+            throw new IdempotencyKeyMismatchException("이미 다른 주문에 사용된 Idempotency-Key 입니다.");
+        }
+        return stored.getOrderId();
+    }
+
+    /**
+     * [오래된 멱등키 삭제] - 보관 기간(retention-hours)이 지난 키 <br/>
+     * 클라이언트 재시도는 보관 기간 안에 끝난다고 본다. (메모리 캐시에 남은 키는 밀려날 때까지 그대로 응답)
+     */
+    @Scheduled(cron = "${jpashop.order.idempotency.purge-cron:0 0 4 * * *}")
+    public void purgeExpired() {
+        int deleted = orderService.deleteIdempotencyKeys(LocalDateTime.now().minusHours(retentionHours));
+        log.info("idempotency keys purged : {}", deleted);
+    }
+
+    private IdempotencyKey join(CompletableFuture<IdempotencyKey> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.StockHandler;
 import jpabook.jpashop.form.BookForm;
 import jpabook.jpashop.repository.ItemRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,8 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class ItemService { // 위임만 하게된다면 바로 Repository에 접근해도 문제가 없다고 생각.
     private final ItemRepository itemRepository;
+    private final OrderChangeTracker orderChangeTracker;
+    private final StockHandler stockHandler; // 재고 증감 방식 (jpashop.order.stock-mode)
 
     /**
      * 상품 등록
@@ -36,9 +39,10 @@ public class ItemService { // 위임만 하게된다면 바로 Repository에 접
         findBook.setId(itemId);
         findBook.setName(form.getName());
         findBook.setPrice(form.getPrice());
-        findBook.setStockQuantity(form.getStockQuantity());
+        stockHandler.setStock(findBook, form.getStockQuantity());
         findBook.setAuthor(form.getAuthor());
         findBook.setIsbn(form.getIsbn());
+        orderChangeTracker.markChanged(); // 주문 조회 결과에 상품명 포함
     }
 
     /**
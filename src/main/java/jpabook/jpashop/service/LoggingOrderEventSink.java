@@ -0,0 +1,26 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.OrderOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * [주문 이벤트 로그 발행] - jpashop.outbox.sink=log (기본값) <br/>
+ * 이벤트를 한 줄씩 로그로 남긴다. (로그 수집기가 파일을 읽어서 전달)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingOrderEventSink implements OrderEventSink {
+
+    @Override
+    public void publish(List<OrderOutbox> events) {
+        for (OrderOutbox event : events) {
+            log.info("order event id={} type={} orderId={} createdDate={}",
+                    event.getId(), event.getEventType(), event.getOrderId(), event.getCreatedDate());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * [회원 일괄 등록 결과] <br/>
+ * 실패한 행은 최대 MemberImportService.MAX_REPORTED_ERRORS 건까지만 담는다. (failedCount는 전체 수)
+ */
+@Getter
+@AllArgsConstructor
+public class MemberImportResult {
+    private final long totalRows;
+    private final long importedCount;
+    private final long failedCount;
+    private final long elapsedMillis;
+    private final double rowsPerSecond;
+    private final List<RowError> errors;
+
+    /**
+     * 실패한 행 (줄 번호, 이름, 사유)
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+        private final long line;
+        private final String name;
+        private final String message;
+    }
+}
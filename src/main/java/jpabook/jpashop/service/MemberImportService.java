@@ -0,0 +1,258 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberEmRepository;
+import jpabook.jpashop.repository.MemberOrderStatsRepository;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * [회원 일괄 등록] - 제휴사 회원 이관 <br/>
+ * 요청 본문(CSV / NDJSON)을 한 줄씩 읽어서 batch-size 행마다 한 트랜잭션으로 등록한다. (본문 전체를 메모리에 올리지 않음) <br/>
+ * 묶음마다 <br/>
+ * 1. 빈 이름, 묶음 안의 중복 이름을 메모리에서 걸러낸다. <br/>
+ * 2. 블룸 필터가 있을 수도 있다고 한 이름만 in 쿼리로 가입 여부를 확인한다. <br/>
+ * 3. 나머지를 persist 하고 flush/clear -> pooled 시퀀스 + JDBC batch insert, 영속성 컨텍스트는 묶음 크기 이상 커지지 않는다. <br/>
+ * 앞 묶음은 이미 커밋되었으므로 묶음 사이의 중복은 2번 조회에서 걸러진다. <br/>
+ * 동시에 같은 이름이 가입되어 묶음 insert가 제약조건(uk_member_name)에 걸리면 그 묶음만 한 건씩(MemberService.join) 다시 등록한다.
+ */
+@Service
+public class MemberImportService {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String[] CSV_COLUMNS = {"name", "city", "street", "zipcode"};
+
+    /**
+     * 요청 본문 형식 <br/>
+     * CSV : name,city,street,zipcode (첫 줄이 컬럼 이름과 같으면 헤더, 값 안의 쉼표/따옴표는 지원하지 않음) <br/>
+     * NDJSON : 한 줄에 {"name":"", "city":"", "street":"", "zipcode":""} 하나
+     */
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private final MemberEmRepository memberEmRepository;
+    private final MemberOrderStatsRepository memberOrderStatsRepository;
+    private final MemberService memberService;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberNameIndex memberNameIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public MemberImportService(MemberEmRepository memberEmRepository,
+                               MemberOrderStatsRepository memberOrderStatsRepository,
+                               MemberService memberService,
+                               MemberNameFilter memberNameFilter,
+                               MemberNameIndex memberNameIndex,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${jpashop.member.import.batch-size:1000}") int batchSize) {
+        this.memberEmRepository = memberEmRepository;
+        this.memberOrderStatsRepository = memberOrderStatsRepository;
+        this.memberService = memberService;
+        this.memberNameFilter = memberNameFilter;
+        this.memberNameIndex = memberNameIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * [회원 일괄 등록]
+     * @param reader 요청 본문
+     * @param format CSV / NDJSON
+     * @return 전체/등록/실패 행 수, 초당 처리 행 수, 실패한 행
+     */
+    public MemberImportResult importMembers(Reader reader, Format format) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        ImportErrors errors = new ImportErrors();
+        List<MemberImportRow> batch = new ArrayList<>(batchSize);
+        long totalRows = 0;
+        long imported = 0;
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (!StringUtils.hasText(line) || (format == Format.CSV && lineNumber == 1 && isCsvHeader(line))) {
+                continue;
+            }
+            totalRows++;
+            try {
+                batch.add(parse(line, lineNumber, format));
+            } catch (JsonProcessingException e) {
+                errors.add(lineNumber, null, "잘못된 형식입니다. " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                errors.add(lineNumber, null, "잘못된 형식입니다. " + e.getMessage());
+                continue;
+            }
+            if (batch.size() == batchSize) {
+                imported += importBatch(batch, errors);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            imported += importBatch(batch, errors);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        return new MemberImportResult(totalRows, imported, errors.count, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                totalRows * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos), errors.reported);
+    }
+
+    /**
+     * [묶음 등록] - 한 트랜잭션
+     * @return 등록된 회원 수
+     */
+    private int importBatch(List<MemberImportRow> batch, ImportErrors errors) {
+        Map<String, MemberImportRow> rows = new LinkedHashMap<>(); // 이름 -> 행 (묶음 안 중복 제거)
+        for (MemberImportRow row : batch) {
+            if (!StringUtils.hasText(row.getName())) {
+                errors.add(row.getLine(), row.getName(), "이름이 비어있습니다.");
+            } else if (rows.putIfAbsent(row.getName(), row) != null) {
+                errors.add(row.getLine(), row.getName(), "파일 안에서 중복된 이름입니다.");
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<MemberImportRow> duplicates = new ArrayList<>();
+        List<Member> imported;
+        try {
+            imported = transactionTemplate.execute(status -> {
+                duplicates.clear();
+                Set<String> existing = new HashSet<>(memberEmRepository.findExistingNames(rows.keySet().stream()
+                        .filter(memberNameFilter::mightContain) // 확실히 없는 이름은 조회하지 않는다.
+                        .collect(Collectors.toList())));
+                List<Member> members = new ArrayList<>(rows.size());
+                for (MemberImportRow row : rows.values()) {
+                    if (existing.contains(row.getName())) {
+                        duplicates.add(row);
+                        continue;
+                    }
+                    Member member = row.toMember();
+                    memberEmRepository.save(member);
+                    members.add(member);
+                }
+                memberEmRepository.flushAndClear(); // batch insert 후 영속성 컨텍스트 비우기
+                memberOrderStatsRepository.insertEmpty(members.stream()
+                        .map(Member::getId)
+                        .collect(Collectors.toList())); // 빈 주문 통계 (insert ... select)
+                return members;
+            });
+        } catch (DataIntegrityViolationException e) {
+            return importOneByOne(rows.values(), errors); // 동시에 가입된 이름이 있음 -> 묶음 롤백 후 한 건씩
+        }
+        duplicates.forEach(row -> errors.add(row.getLine(), row.getName(), "이미 존재하는 회원 입니다."));
+        imported.forEach(member -> {
+            memberNameFilter.put(member.getName());
+            memberNameIndex.put(member.getId(), member.getName());
+        });
+        return imported.size();
+    }
+
+    private int importOneByOne(Collection<MemberImportRow> rows, ImportErrors errors) {
+        int imported = 0;
+        for (MemberImportRow row : rows) {
+            try {
+                memberService.join(row.toMember());
+                imported++;
+            } catch (RuntimeException e) { // 중복 회원, 컬럼 길이 초과 등 -> 이 행만 실패
+                errors.add(row.getLine(), row.getName(), e.getMessage());
+            }
+        }
+        return imported;
+    }
+
+    private MemberImportRow parse(String line, long lineNumber, Format format) throws JsonProcessingException {
+        MemberImportRow row;
+        if (format == Format.NDJSON) {
+            row = objectMapper.readValue(line, MemberImportRow.class);
+        } else {
+            String[] columns = line.split(",", -1);
+            if (columns.length > 4) {
+                throw new IllegalArgumentException("컬럼은 name,city,street,zipcode 4개까지입니다.");
+            }
+            row = new MemberImportRow();
+            row.setName(columns[0]);
+            row.setCity(columns.length > 1 ? columns[1] : null);
+            row.setStreet(columns.length > 2 ? columns[2] : null);
+            row.setZipcode(columns.length > 3 ? columns[3] : null);
+        }
+        row.setLine(lineNumber);
+        row.setName(row.getName() == null ? null : row.getName().trim());
+        return row;
+    }
+
+    /**
+     * CSV 헤더인지 - 컬럼 이름(name,city,street,zipcode)을 앞에서부터 순서대로 쓴 줄만 헤더로 본다. (대소문자 무시) <br/>
+     * "Namely,서울" 처럼 name으로 시작하는 회원 이름은 헤더가 아니다.
+     */
+    private boolean isCsvHeader(String line) {
+        String[] columns = line.replace("\uFEFF", "").split(",", -1); // BOM 제거
+        if (columns.length > CSV_COLUMNS.length) {
+            return false;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (!columns[i].trim().equalsIgnoreCase(CSV_COLUMNS[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 등록할 행
+     */
+    @Data
+    public static class MemberImportRow {
+        private long line;
+        private String name;
+        private String city;
+        private String street;
+        private String zipcode;
+
+        Member toMember() {
+            Member member = new Member();
+            member.setName(name);
+            if (StringUtils.hasText(city) || StringUtils.hasText(street) || StringUtils.hasText(zipcode)) {
+                member.setAddress(new Address(trim(city), trim(street), trim(zipcode)));
+            }
+            return member;
+        }
+
+        private static String trim(String value) {
+            return value == null ? null : value.trim();
+        }
+    }
+
+    /**
+     * 실패한 행 - 전체 수는 세고, 응답에는 MAX_REPORTED_ERRORS 건까지만 담는다.
+     */
+    private static class ImportErrors {
+        private final List<MemberImportResult.RowError> reported = new ArrayList<>();
+        private long count;
+
+        void add(long line, String name, String message) {
+            count++;
+            if (reported.size() < MAX_REPORTED_ERRORS) {
+                reported.add(new MemberImportResult.RowError(line, name, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberEmRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * [회원 이름 블룸 필터] <br/>
+ * 가입된 회원 이름을 비트 배열에 기록해두고, 새 이름이 "확실히 없는 이름"인지 DB 조회 없이 판단한다. <br/>
+ * - mightContain == false : 한번도 기록되지 않은 이름 -> 중복 조회 생략 <br/>
+ * - mightContain == true : 있을 수도 있는 이름 (오탐률 false-positive-rate) -> existsByName 으로 확인 <br/>
+ * 시작시(ApplicationReadyEvent) 기존 회원 이름을 키셋 조회로 적재하고, 가입/이름 변경시 새 이름을 추가한다. <br/>
+ * 비트는 지우지 않으므로(변경 전 이름, 롤백된 가입) 오탐만 늘고 누락은 생기지 않는다. 적재가 끝나기 전에는 항상 true 이다. <br/>
+ * 필터는 인스턴스 메모리에 있으므로 다른 인스턴스에서 가입한 이름은 모를 수 있다. -> 최종 판정은 uk_member_name 제약조건
+ */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private static final int WARM_UP_PAGE_SIZE = 10_000;
+
+    private final MemberEmRepository memberEmRepository;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean ready;
+
+    public MemberNameFilter(MemberEmRepository memberEmRepository,
+                            @Value("${jpashop.member.name-filter.expected-names:1000000}") long expectedNames,
+                            @Value("${jpashop.member.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.memberEmRepository = memberEmRepository;
+        // m = -n * ln(p) / (ln 2)^2, k = m / n * ln 2
+        long optimalBits = (long) Math.ceil(-expectedNames * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedNames * Math.log(2)));
+    }
+
+    /**
+     * 시작시 기존 회원 이름 적재 (id 키셋 페이지 단위)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        long loaded = 0;
+        Long lastId = 0L;
+        List<Object[]> page;
+        do {
+            page = memberEmRepository.findNamesAfter(lastId, WARM_UP_PAGE_SIZE);
+            for (Object[] row : page) {
+                put((String) row[1]);
+                lastId = (Long) row[0];
+            }
+            loaded += page.size();
+        } while (page.size() == WARM_UP_PAGE_SIZE);
+        ready = true;
+        log.info("member name filter warmed up : {} names, {} bits, {} hashes in {} ms",
+                loaded, bitCount, hashCount, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 이름 기록
+     */
+    public void put(String name) {
+        if (name == null) {
+            return;
+        }
+        long hash1 = hash1(name);
+        long hash2 = hash2(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitCount);
+            long mask = 1L << (index & 63);
+            bits.getAndAccumulate((int) (index >>> 6), mask, (word, bit) -> word | bit);
+        }
+    }
+
+    /**
+     * 이미 기록된 이름일 수 있는지 - false 이면 확실히 없는 이름
+     */
+    public boolean mightContain(String name) {
+        if (!ready || name == null) {
+            return true;
+        }
+        long hash1 = hash1(name);
+        long hash2 = hash2(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a 64 + murmur3 finalizer
+     */
+    private static long hash1(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * 두번째 해시 (홀수) - k개 해시는 hash1 + i * hash2 로 만든다. (double hashing)
+     */
+    private static long hash2(long hash1) {
+        return mix(hash1 ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93e94d049b3L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,127 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberEmRepository;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * [회원 이름 접두어 색인] - 자동완성 <br/>
+ * 회원 이름을 [소문자 이름 + \0 + 19자리 회원 id] 순으로 정렬된 메모리 맵에 두고, 접두어 범위(subMap)의 앞에서부터 limit 건을 돌려준다. <br/>
+ * like '%x%' 와 달리 DB를 조회하지 않고, 조회 비용은 전체 회원 수가 아니라 limit에 비례한다. (O(log n + limit)) <br/>
+ * 시작시(ApplicationReadyEvent) 기존 회원을 키셋 조회로 적재하고, 가입/이름 변경/일괄 등록이 커밋되면 반영한다. <br/>
+ * 적재 중에 커밋된 이름 변경이 적재된 이전 이름으로 덮어써지지 않도록, 적재는 아직 색인되지 않은 회원만 넣는다. <br/>
+ * 색인은 인스턴스 메모리에 있으므로 다른 인스턴스에서 가입한 회원은 재시작 전까지 보이지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberNameIndex {
+
+    private static final int WARM_UP_PAGE_SIZE = 10_000;
+    private static final char SEPARATOR = '\u0000'; // 어떤 글자보다 앞 -> 같은 이름은 id 순
+
+    private final MemberEmRepository memberEmRepository;
+    private final ConcurrentSkipListMap<String, Match> index = new ConcurrentSkipListMap<>(); // 색인 키 -> 회원
+    private final Map<Long, String> keys = new ConcurrentHashMap<>(); // 회원 id -> 색인 키 (이름 변경시 이전 키 삭제)
+
+    public MemberNameIndex(MemberEmRepository memberEmRepository) {
+        this.memberEmRepository = memberEmRepository;
+    }
+
+    /**
+     * 시작시 기존 회원 적재 (id 키셋 페이지 단위)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        Long lastId = 0L;
+        List<Object[]> page;
+        do {
+            page = memberEmRepository.findNamesAfter(lastId, WARM_UP_PAGE_SIZE);
+            for (Object[] row : page) {
+                lastId = (Long) row[0];
+                index(lastId, (String) row[1], false); // 적재 중 반영된 가입/변경이 우선
+            }
+        } while (page.size() == WARM_UP_PAGE_SIZE);
+        log.info("member name index warmed up : {} members in {} ms", keys.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * [회원 이름 반영] - 가입/이름 변경 <br/>
+     * 트랜잭션 안이면 커밋 이후에, 트랜잭션 밖이면 즉시 반영한다. (롤백된 가입이 검색되지 않도록)
+     */
+    public void put(Long memberId, String name) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index(memberId, name, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index(memberId, name, true);
+            }
+        });
+    }
+
+    /**
+     * [접두어 검색] - 대소문자 구분 없음, 이름 순(같은 이름은 id 순)
+     * @param prefix 이름 접두어
+     * @param limit 최대 결과 수
+     */
+    public List<Match> search(String prefix, int limit) {
+        String from = normalize(prefix);
+        ConcurrentNavigableMap<String, Match> range = index.subMap(from, true, from + Character.MAX_VALUE, false);
+        List<Match> matches = new ArrayList<>(Math.min(limit, 64));
+        for (Match match : range.values()) {
+            if (matches.size() >= limit) {
+                break;
+            }
+            matches.add(match);
+        }
+        return matches;
+    }
+
+    /**
+     * 색인 반영 - 쓰기끼리만 직렬화한다. (검색은 락 없음)
+     * @param overwrite false 이면 이미 색인된 회원은 건너뛴다. (시작시 적재)
+     */
+    private synchronized void index(Long memberId, String name, boolean overwrite) {
+        if (memberId == null || name == null || (!overwrite && keys.containsKey(memberId))) {
+            return;
+        }
+        String key = normalize(name) + SEPARATOR + String.format("%019d", memberId); // 고정 길이 -> 같은 이름은 id 숫자 순
+        index.put(key, new Match(memberId, name));
+        String previous = keys.put(memberId, key);
+        if (previous != null && !previous.equals(key)) {
+            index.remove(previous); // 변경 전 이름
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 검색된 회원 (id, 이름)
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class Match {
+        private final Long id;
+        private final String name;
+    }
+}
@@ -1,29 +1,57 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.MemberOrderStats;
 import jpabook.jpashop.repository.MemberEmRepository;
+import jpabook.jpashop.repository.MemberNameView;
+import jpabook.jpashop.repository.MemberOrderStatsRepository;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSummaryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collections;
 import java.util.List;
 
 @Service
 @Transactional(readOnly = true) // 읽기전용(select) - 더티체킹X, DB리소스절약 등의 이점
 @RequiredArgsConstructor
 public class MemberService {
+    private static final int RECONCILE_CHUNK_SIZE = 512; // 통계 재구성 청크 (회원 수)
+
     private final MemberEmRepository memberEmRepository; // @RequiredArgsConstructor에 의해 생성자 의존성 자동 주입됨
     private final MemberRepository memberRepository;// SpringDataJPA 리포지토리
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderChangeTracker orderChangeTracker;
+    private final MemberNameFilter memberNameFilter; // 가입된 회원 이름 블룸 필터
+    private final MemberNameIndex memberNameIndex; // 회원 이름 자동완성 색인
+    private final MemberOrderStatsRepository memberOrderStatsRepository; // 회원별 주문 통계
+    private final TransactionTemplate transactionTemplate;
 
     /**
-     * 회원 가입
+     * 회원 가입 <br/>
+     * 중복 검사와 insert 사이에 같은 이름이 먼저 가입되면 uk_member_name 제약조건 위반 -> 같은 중복 회원 예외로 바꾼다. <br/>
+     * (insert를 바로 flush 해서 제약조건 위반을 커밋 전에 이 메서드 안에서 확인한다.)
      */
     @Transactional(readOnly = false)// 기본값 false (insert,update 등 변경사항)
     public Long join(Member member) {
-        validateDuplicateMember(member);
+        validateDuplicateMember(member.getName());
 //        memberEmRepository.save(member);
-        memberRepository.save(member);//SpringDataJPA 변경 반영
+        try {
+            memberRepository.saveAndFlush(member);//SpringDataJPA 변경 반영
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원 입니다.", e);
+        }
+        memberOrderStatsRepository.insertEmpty(Collections.singletonList(member.getId())); // 주문 통계는 증감 update만 하도록 미리 저장
+        memberNameFilter.put(member.getName());
+        memberNameIndex.put(member.getId(), member.getName()); // 커밋 후 반영
         return member.getId();
     }
 
@@ -35,16 +63,24 @@ public class MemberService {
     public void update(Long id, String name) {
 //        Member member = memberEmRepository.findOne(id);
         Member member = memberRepository.findById(id).get();//SpringDataJPA 변경 반영
+        if (!member.getName().equals(name)) {
+            validateDuplicateMember(name);
+        }
         member.setName(name);
+        memberNameFilter.put(name);
+        memberNameIndex.put(id, name);
+        orderSummaryRepository.updateMemberName(id, name); // 주문 요약 조회 모델의 회원명 함께 갱신
+        orderChangeTracker.markChanged(); // 주문 조회 결과에 회원명 포함
     }
     /**
-     * 중복회원 검증 메소드
-     * @param member
+     * 중복회원 검증 메소드 <br/>
+     * 블룸 필터에 없는 이름은 DB 조회 없이 통과하고, 있을 수도 있는 이름만 존재 여부를 조회한다. (엔티티 조회 X) <br/>
+     * 동시 가입은 여기서 막을 수 없으므로 name 컬럼 Unique 제약조건(uk_member_name)이 최종 판정한다.
+     * @param name
      */
-    private void validateDuplicateMember(Member member) {
+    private void validateDuplicateMember(String name) {
 //        List<Member> findMembers = memberEmRepository.findByName(member.getName()); // 동시성 문제 대안 : name 컬럼 Unique 제약조건 지정
-        List<Member> findMembers = memberRepository.findByName(member.getName());//SpringDataJPA 변경 반영
-        if (!findMembers.isEmpty()) {
+        if (memberNameFilter.mightContain(name) && memberRepository.existsByName(name)) {
             throw new IllegalStateException("이미 존재하는 회원 입니다.");
         }
     }
@@ -57,6 +93,44 @@ public class MemberService {
         return memberRepository.findAll();//SpringDataJPA 변경 반영
     }
 
+    /**
+     * 회원 이름 목록 조회 (키셋 페이징) - 엔티티 대신 id, 이름만 조회
+     * @param lastMemberId 이 id 다음부터 (첫 페이지 : 0)
+     * @param size 페이지 크기
+     */
+    public Slice<MemberNameView> findMemberNames(Long lastMemberId, int size) {
+        return memberRepository.findByIdGreaterThanOrderByIdAsc(lastMemberId, PageRequest.of(0, size));
+    }
+
+    /**
+     * 회원별 주문 통계 조회 (PK 조회 한번) - 통계 row가 아직 없는 회원(재구성 전)은 0으로 응답한다.
+     */
+    public MemberOrderStats findOrderStats(Long memberId) {
+        MemberOrderStats stats = memberOrderStatsRepository.findOne(memberId);
+        return stats != null ? stats : MemberOrderStats.empty(memberId);
+    }
+
+    /**
+     * [회원별 주문 통계 재구성] - 증감 누락 등으로 어긋난 통계 복구 <br/>
+     * 통계 도입 전에 가입한 회원의 통계 row도 이때 만든다. (배포 후 한번 실행) <br/>
+     * 회원 RECONCILE_CHUNK_SIZE 명씩 청크마다 트랜잭션을 커밋한다. (통계 row 락을 청크 동안만 잡음) <br/>
+     * jpashop.member.order-stats.reconcile-cron 으로 주기 실행 (기본값 "-" : 실행하지 않음)
+     * @return 재구성된 회원 통계 수
+     */
+    @Scheduled(cron = "${jpashop.member.order-stats.reconcile-cron:-}")
+    @Transactional(readOnly = false, propagation = Propagation.SUPPORTS)
+    public int reconcileOrderStats() {
+        int reconciled = 0;
+        Long lastMemberId = 0L;
+        List<Long> memberIds;
+        while (!(memberIds = memberOrderStatsRepository.findMemberIds(lastMemberId, RECONCILE_CHUNK_SIZE)).isEmpty()) {
+            List<Long> chunk = memberIds;
+            reconciled += transactionTemplate.execute(status -> memberOrderStatsRepository.reconcile(chunk));
+            lastMemberId = chunk.get(chunk.size() - 1);
+        }
+        return reconciled;
+    }
+
     /**
      * 회원 단건 조회
      */
@@ -0,0 +1,73 @@
+package jpabook.jpashop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * [낙관적 락 충돌 재시도] <br/>
+ * 버전(@Version) 충돌로 실패한 쓰기 트랜잭션을 지수 백오프 + 지터(full jitter)로 최대 max-attempts번까지 다시 실행한다. <br/>
+ * 재시도 대상 작업은 매번 새 트랜잭션이어야 한다. (ex. TransactionTemplate.execute) <br/>
+ * 이미 바깥 트랜잭션에 참여중이면 실패한 트랜잭션을 되살릴 수 없으므로 재시도하지 않고 한번만 실행한다.
+ */
+@Slf4j
+@Component
+public class OptimisticLockRetry {
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticLockRetry(@Value("${jpashop.order.retry.max-attempts:5}") int maxAttempts,
+                               @Value("${jpashop.order.retry.backoff-ms:5}") long backoffMillis,
+                               @Value("${jpashop.order.retry.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * [재시도 실행] <br/>
+     * 마지막 시도까지 충돌하면 마지막 예외를 그대로 던진다.
+     */
+    public <T> T execute(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("optimistic lock conflict - giving up after {} attempts", attempt);
+                    throw e;
+                }
+                log.debug("optimistic lock conflict - retry {}/{}", attempt, maxAttempts);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * 0 ~ min(max, base * 2^(attempt-1)) 사이 임의 시간 대기 <br/>
+     * 동시에 충돌한 요청들이 같은 시점에 다시 충돌하지 않도록 대기시간을 흩뜨린다.
+     */
+    private void backoff(int attempt, RuntimeException cause) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.exception.OrderOutcomeUnknownException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * [주문 그룹 커밋] - jpashop.order.group-commit.enabled=true 일때만 묶어서 처리 <br/>
+ * 동시에 들어온 주문 요청을 큐에 모아서, 작업 스레드가 최대 max-batch-size 건 또는 max-wait-ms 동안 모은 뒤 <br/>
+ * 한 트랜잭션으로 처리한다. (OrderService.orderBatch) 커밋 비용을 묶음 전체가 나눠서 부담한다. <br/>
+ * 요청 스레드는 자기 주문의 결과(주문 id 또는 예외)를 기다렸다가 받는다. <br/>
+ * 큐가 가득 차면 묶지 않고 요청 스레드에서 바로 주문한다. (요청을 버리지 않음) <br/>
+ * 결과를 result-timeout-ms 안에 받지 못하면, 아직 큐에 있는 주문은 꺼내서 바로 주문하고 <br/>
+ * 이미 묶음에 들어간 주문은 커밋될 수 있으므로 결과가 나올 때까지 기다린다. (기다리다 중단되면 OrderOutcomeUnknownException) <br/>
+ * 작업 스레드(workers)가 여러개면 묶음끼리 같은 상품 row를 두고 경합할 수 있으므로 기본값은 1이다.
+ */
+@Slf4j
+@Component
+public class OrderBatcher {
+
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long resultTimeoutMillis;
+    private final BlockingQueue<PendingOrder> queue;
+    private final ExecutorService workers;
+    private volatile boolean running = true;
+
+    public OrderBatcher(OrderService orderService,
+                        @Value("${jpashop.order.group-commit.enabled:false}") boolean enabled,
+                        @Value("${jpashop.order.group-commit.max-batch-size:64}") int maxBatchSize,
+                        @Value("${jpashop.order.group-commit.max-wait-ms:5}") long maxWaitMillis,
+                        @Value("${jpashop.order.group-commit.queue-capacity:10000}") int queueCapacity,
+                        @Value("${jpashop.order.group-commit.workers:1}") int workers,
+                        @Value("${jpashop.order.group-commit.result-timeout-ms:30000}") long resultTimeoutMillis) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.resultTimeoutMillis = resultTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (!enabled) {
+            this.workers = null;
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-batcher-");
+        threadFactory.setDaemon(true);
+        this.workers = Executors.newFixedThreadPool(workers, threadFactory);
+        for (int i = 0; i < workers; i++) {
+            this.workers.execute(this::work);
+        }
+    }
+
+    /**
+     * [주문] <br/>
+     * 그룹 커밋이 켜져있으면 묶음으로 처리될 때까지 기다리고, 꺼져있으면 바로 주문한다.
+     * @return 주문 완료된 주문ID
+     */
+    public Long order(Long memberId, Long itemId, int count) {
+        if (!enabled) {
+            return orderService.order(memberId, itemId, count);
+        }
+        OrderCommand command = new OrderCommand(memberId, Collections.singletonList(new OrderLine(itemId, count)));
+        PendingOrder pending = new PendingOrder(command);
+        if (!running || !queue.offer(pending)) {
+            return orderService.order(memberId, itemId, count); // 큐가 가득참 -> 바로 주문
+        }
+        if (!running && queue.remove(pending)) {
+            return orderService.order(memberId, itemId, count); // 넣는 사이 종료 시작 -> 작업 스레드가 꺼내지 않았으면 바로 주문
+        }
+        Long orderId = await(pending, resultTimeoutMillis);
+        if (orderId != null) {
+            return orderId;
+        }
+        if (queue.remove(pending)) {
+            return orderService.order(memberId, itemId, count); // 아직 묶이지 않음 -> 바로 주문
+        }
+        return await(pending, Long.MAX_VALUE); // 이미 묶음에 들어감 -> 커밋될 수 있으므로 결과를 끝까지 기다린다.
+    }
+
+    /**
+     * 주문 결과 대기 <br/>
+     * 기다리다 중단되면 큐에 남은 주문은 꺼내서 실패로, 이미 묶음에 들어간 주문은 OrderOutcomeUnknownException으로 응답한다.
+     * @return 주문 id (timeoutMillis 안에 결과가 없으면 null)
+     */
+    private Long await(PendingOrder pending, long timeoutMillis) {
+        try {
+            return pending.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause(); // 주문 서비스에서 발생한 예외 그대로
+            }
+            throw new IllegalStateException("주문 처리에 실패했습니다.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (queue.remove(pending)) {
+                throw new IllegalStateException("주문 처리 결과를 기다리는 중 중단되었습니다.", e); // 주문되지 않음
+            }
+            throw new OrderOutcomeUnknownException("주문 처리 결과를 기다리는 중 중단되었습니다. 주문 내역을 확인해주세요.", e);
+        }
+    }
+
+    /**
+     * 작업 스레드 - 묶음을 모아서 처리
+     */
+    private void work() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                execute(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                execute(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void execute(List<PendingOrder> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<OrderCommand> commands = new ArrayList<>(batch.size());
+        batch.forEach(pending -> commands.add(pending.command));
+        try {
+            List<OrderResult> results = orderService.orderBatch(commands);
+            for (int i = 0; i < batch.size(); i++) {
+                OrderResult result = results.get(i);
+                if (result.isSuccess()) {
+                    batch.get(i).future.complete(result.getOrderId());
+                } else {
+                    batch.get(i).future.completeExceptionally(result.getError());
+                }
+            }
+        } catch (Throwable e) { // Error도 잡아서 기다리는 요청에 알리고 작업 스레드는 계속 동작
+            log.warn("order batch failed : {} orders", batch.size(), e);
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * 종료 - 이미 받은 주문은 처리하고 종료한다. <br/>
+     * 작업 스레드가 끝난 뒤에도 큐에 남은 주문(종료 직전에 들어온 주문)은 실패로 응답한다.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (workers == null) {
+            return;
+        }
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        List<PendingOrder> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        IllegalStateException shuttingDown = new IllegalStateException("서버가 종료중입니다. 잠시 후 다시 주문해주세요.");
+        remaining.forEach(pending -> pending.future.completeExceptionally(shuttingDown));
+    }
+
+    /**
+     * 큐에서 기다리는 주문 (명령 + 결과를 기다리는 future)
+     */
+    private static class PendingOrder {
+        private final OrderCommand command;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        PendingOrder(OrderCommand command) {
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package jpabook.jpashop.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * [주문 조회 변경 워터마크] <br/>
+ * 주문 목록 조회 결과에 영향을 주는 변경(주문, 주문취소, 회원명/상품 수정 등)이 커밋될 때마다 버전을 올린다. <br/>
+ * 조회 API는 이 버전으로 ETag/Last-Modified를 만들고, 변경이 없으면 주문 테이블을 조회하지 않고 304를 응답한다. <br/>
+ * 버전은 커밋 이후에 올리므로(afterCommit) 롤백된 변경으로 캐시가 무효화되지 않고, <br/>
+ * 조회 전에 읽은 버전은 항상 조회 결과보다 같거나 오래된 값이라 클라이언트가 변경을 놓치지 않는다. <br/>
+ * 단, 버전은 JVM 메모리에만 있으므로 단일 인스턴스 배포에서만 사용할 수 있다. <br/>
+ * 다중 인스턴스에서는 다른 인스턴스에서 커밋된 변경을 모르므로, 변경 이후에도 이 인스턴스는 이전 ETag로 304를 응답한다. <br/>
+ * (다른 인스턴스가 내려준 Last-Modified로 온 If-Modified-Since도 같다.) <br/>
+ * -> 워터마크를 인스턴스끼리 공유하기 전까지 jpashop.order.not-modified.enabled 기본값은 false (단일 인스턴스에서만 켠다.)
+ */
+@Component
+public class OrderChangeTracker {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36); // 재시작 후 같은 버전 재사용 방지
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong lastModified = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * [변경 기록] <br/>
+     * 트랜잭션 안이면 커밋 이후에, 트랜잭션 밖이면 즉시 버전을 올린다.
+     */
+    public void markChanged() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump();
+            }
+        });
+    }
+
+    private void bump() {
+        version.incrementAndGet();
+        // 실제 시각보다 앞서가지 않는다. 같은 초 안의 변경은 OrderNotModifiedInterceptor가 Last-Modified를 내려주지 않아서 구분한다.
+        lastModified.accumulateAndGet(System.currentTimeMillis(), Math::max);
+    }
+
+    /**
+     * 현재 버전의 ETag (강한 ETag, 따옴표 포함)
+     */
+    public String getETag() {
+        return "\"orders-" + bootId + "-" + version.get() + "\"";
+    }
+
+    /**
+     * 마지막 변경 시각 (epoch millis)
+     */
+    public long getLastModified() {
+        return lastModified.get();
+    }
+}
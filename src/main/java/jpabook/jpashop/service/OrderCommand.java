@@ -0,0 +1,16 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * [주문 명령] - 회원 한명의 주문 한건 (주문 라인 목록)
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCommand {
+    private final Long memberId;
+    private final List<OrderLine> lines;
+}
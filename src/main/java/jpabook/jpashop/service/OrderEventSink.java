@@ -0,0 +1,14 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.OrderOutbox;
+
+import java.util.List;
+
+/**
+ * [주문 이벤트 발행 대상] - 아웃박스 발행기(OrderOutboxPublisher)가 묶음 단위로 호출한다. <br/>
+ * 예외를 던지면 묶음 전체가 삭제되지 않고 다음 주기에 다시 발행된다. (같은 이벤트를 두번 받을 수 있다 -> 주문 id + 이벤트 종류로 중복 제거)
+ */
+public interface OrderEventSink {
+
+    void publish(List<OrderOutbox> events);
+}
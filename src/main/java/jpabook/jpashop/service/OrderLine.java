@@ -0,0 +1,14 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * [주문 라인] - 장바구니 주문의 상품 한 줄 (상품 id, 주문 수량)
+ */
+@Getter
+@AllArgsConstructor
+public class OrderLine {
+    private final Long itemId;
+    private final int count;
+}
@@ -0,0 +1,150 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.OrderOutbox;
+import jpabook.jpashop.repository.OrderOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * [주문 이벤트 발행기] - jpashop.outbox.publisher.enabled=true 일때만 동작 (기본값 false) <br/>
+ * 실제 발행 대상(OrderEventSink)을 설정한 인스턴스에서만 켠다. (꺼져 있으면 폴링 스레드를 만들지 않고, 이벤트는 아웃박스에 쌓인다) <br/>
+ * 주문 트랜잭션은 아웃박스(order_outbox)에 한 줄 insert 만 하고, 외부 발행은 이 단일 스레드가 주기적으로 한다. <br/>
+ * 한 트랜잭션에서 batch-size 건을 선점(for update skip locked) -> 발행(OrderEventSink) -> 삭제(in 절 delete) 한다. <br/>
+ * 발행이 실패하면 롤백되어 이벤트가 남아있으므로 다음 주기에 다시 발행한다. <br/>
+ * 발행 건수와 발행 지연(이벤트 저장 ~ 발행)은 /api/outbox/stats 로 확인한다.
+ */
+@Slf4j
+@Component
+public class OrderOutboxPublisher {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final OrderEventSink orderEventSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ScheduledExecutorService publisher;
+    private final long startedAt = System.currentTimeMillis();
+
+    //=================== 발행 통계 ===================//
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong(); // 마지막 묶음에서 가장 오래 기다린 이벤트의 지연
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    public OrderOutboxPublisher(OrderOutboxRepository orderOutboxRepository,
+                                OrderEventSink orderEventSink,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${jpashop.outbox.publisher.enabled:false}") boolean enabled,
+                                @Value("${jpashop.outbox.publisher.poll-interval-ms:200}") long pollIntervalMillis,
+                                @Value("${jpashop.outbox.publisher.batch-size:500}") int batchSize) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.orderEventSink = orderEventSink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        if (!enabled) {
+            this.publisher = null;
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("outbox-publisher-");
+        threadFactory.setDaemon(true);
+        this.publisher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.publisher.scheduleWithFixedDelay(this::publishQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void publishQuietly() {
+        try {
+            while (publish() == batchSize) {
+                // 쌓인 이벤트가 더 있으면 이어서 발행
+            }
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            log.warn("order outbox publish failed - will retry", e);
+        }
+    }
+
+    /**
+     * [이벤트 발행] - 묶음 하나를 선점, 발행, 삭제한다.
+     * @return 발행한 이벤트 수
+     */
+    public int publish() {
+        List<OrderOutbox> published = transactionTemplate.execute(status -> {
+            List<OrderOutbox> events = orderOutboxRepository.claim(batchSize);
+            if (events.isEmpty()) {
+                return Collections.<OrderOutbox>emptyList();
+            }
+            orderEventSink.publish(events);
+            orderOutboxRepository.deleteAll(events.stream()
+                    .map(OrderOutbox::getId)
+                    .collect(Collectors.toList()));
+            return events;
+        });
+        if (!published.isEmpty()) {
+            long lag = Duration.between(published.get(0).getCreatedDate(), LocalDateTime.now()).toMillis(); // id 순 -> 첫 이벤트가 가장 오래됨
+            publishedCount.addAndGet(published.size());
+            batchCount.incrementAndGet();
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+        return published.size();
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis.get();
+    }
+
+    /**
+     * 시작 이후 초당 발행 건수
+     */
+    public double getPublishedPerSecond() {
+        long elapsedMillis = Math.max(1, System.currentTimeMillis() - startedAt);
+        return publishedCount.get() * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * 종료 전 남은 이벤트 발행
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (publisher == null) {
+            return;
+        }
+        publisher.shutdown();
+        try {
+            publisher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        publishQuietly();
+    }
+}
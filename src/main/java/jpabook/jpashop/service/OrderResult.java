@@ -0,0 +1,27 @@
+package jpabook.jpashop.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * [주문 결과] - 묶음 주문에서 명령 하나의 결과 (주문 id 또는 실패 예외)
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class OrderResult {
+    private final Long orderId;
+    private final RuntimeException error;
+
+    public static OrderResult success(Long orderId) {
+        return new OrderResult(orderId, null);
+    }
+
+    public static OrderResult failure(RuntimeException error) {
+        return new OrderResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
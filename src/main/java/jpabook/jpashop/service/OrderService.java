@@ -2,12 +2,24 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.StockHandler;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.*;
+import jpabook.jpashop.repository.order.simplequery.OrderSummaryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -17,17 +29,70 @@ public class OrderService {
     private final MemberRepository memberRepository;// SpringDataJPA 리포지토리
     private final OrderRepository orderRepository;
     private final ItemRepository itemRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final OrderOutboxRepository orderOutboxRepository; // 주문 이벤트 아웃박스 (OrderOutboxPublisher가 발행)
+    private final MemberOrderStatsRepository memberOrderStatsRepository; // 회원별 주문 통계
+    private final OrderChangeTracker orderChangeTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final StockHandler stockHandler; // 재고 증감 방식 (jpashop.order.stock-mode)
+
+    @Value("${jpashop.order.bulk-batch-size:100}")
+    private int bulkBatchSize; // 대량 주문 등록 flush/clear 단위
 
     /**
      * [주문] <br/>
      * 주문하기 위해 필요한 정보들은 회원정보, 배송정보, 주문상품 이다.<br/>
      * 따라서 해당 객체들을 만들고 주문에 주입한 뒤 저장한다. <br/>
      * 이때, 주문상품에 대한 정보는 상품정보가 들어가야하므로 상품 객체도 만든 후 주문상품에 주입한다.<br/>
+     * 같은 상품을 동시에 주문해서 재고 갱신이 충돌하면(Item @Version) 새 트랜잭션으로 다시 주문한다. <br/>
+     * (트랜잭션은 시도마다 TransactionTemplate으로 시작하므로 여기서는 트랜잭션을 시작하지 않는다.)
      * @Param 회원ID, 아이템ID, 주문수량
      * @return 주문 완료된 주문ID
      */
-    @Transactional(readOnly = false)
+    @Transactional(readOnly = false, propagation = Propagation.SUPPORTS)
     public Long order(Long memberId, Long itemId, int count) {
+        return optimisticLockRetry.execute(() ->
+                transactionTemplate.execute(status -> createOrder(memberId, itemId, count)));
+    }
+
+    /**
+     * [멱등 주문] <br/>
+     * 주문과 멱등키를 한 트랜잭션으로 저장한다. (IdempotentOrderService) <br/>
+     * 같은 키가 이미 저장되어 있으면(다른 서버/요청이 먼저 커밋) 키 저장에서 DataIntegrityViolationException이 발생하고 주문도 롤백된다.
+     * @param idempotencyKey 클라이언트가 보낸 Idempotency-Key
+     * @return 주문 완료된 주문ID
+     */
+    @Transactional(readOnly = false, propagation = Propagation.SUPPORTS)
+    public Long order(Long memberId, Long itemId, int count, String idempotencyKey) {
+        return optimisticLockRetry.execute(() -> transactionTemplate.execute(status -> {
+            Long orderId = createOrder(memberId, itemId, count);
+            idempotencyKeyRepository.save(IdempotencyKey.createIdempotencyKey(idempotencyKey, orderId, memberId, itemId, count));
+            return orderId;
+        }));
+    }
+
+    /**
+     * 저장된 멱등키 조회 (주문 id, 요청 내용) - 없으면 null
+     */
+    public IdempotencyKey findIdempotencyKey(String idempotencyKey) {
+        return idempotencyKeyRepository.findOne(idempotencyKey);
+    }
+
+    /**
+     * 보관 기간이 지난 멱등키 삭제
+     * @return 삭제된 키 수
+     */
+    @Transactional(readOnly = false)
+    public int deleteIdempotencyKeys(LocalDateTime createdBefore) {
+        return idempotencyKeyRepository.deleteCreatedBefore(createdBefore);
+    }
+
+    /**
+     * [주문 생성] - 주문 트랜잭션 한번의 시도
+     */
+    private Long createOrder(Long memberId, Long itemId, int count) {
         // 엔터티 조회
 //        Member member = memberEmRepository.findOne(memberId);
         Member member = memberRepository.findById(memberId).get();//SpringDataJPA 변경 반영
@@ -37,25 +102,326 @@ public class OrderService {
         delivery.setAddress(member.getAddress());
         delivery.setStatus(DeliveryStatus.READY);
         //주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count, stockHandler);
         //주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
         orderRepository.save(order); // casecade.All에 의해서 order가 persist될때 delivery와 orderItem도 자동으로 함께 persist된다.
+        orderSummaryRepository.save(OrderSummary.createOrderSummary(order)); // 주문 요약 조회 모델 함께 저장
+        orderOutboxRepository.save(OrderOutbox.createOrderOutbox(OrderEventType.ORDER_CREATED, order.getId())); // 주문 이벤트 함께 저장
+        recordOrders(Collections.singletonList(order)); // 회원별 주문 통계 함께 갱신
+        orderChangeTracker.markChanged(); // 커밋 후 주문 조회 ETag 변경
         return order.getId();
     }
+    /**
+     * [장바구니 주문] <br/>
+     * 여러 상품을 한 주문, 한 트랜잭션으로 주문한다. 상품은 in 쿼리 한번으로 조회한다. <br/>
+     * 같은 상품 라인은 수량을 합치고, 재고는 item_id 오름차순으로 줄인다. <br/>
+     * -> 동시에 주문된 장바구니들이 항상 같은 순서로 상품 row 락을 잡으므로 서로 교착(deadlock)되지 않는다. <br/>
+     * 재고가 부족한 라인이 하나라도 있으면 부족한 상품을 모두 모아서 NotEnoughStockException 하나로 던지고 전체를 롤백한다.
+     * @param memberId 회원ID
+     * @param lines 주문 라인 (상품ID, 주문수량)
+     * @return 주문 완료된 주문ID
+     */
+    @Transactional(readOnly = false, propagation = Propagation.SUPPORTS)
+    public Long orderCart(Long memberId, List<OrderLine> lines) {
+        if (memberId == null) {
+            throw new IllegalArgumentException("회원 id가 비어있습니다.");
+        }
+        SortedMap<Long, Integer> counts = mergeLines(lines);
+        return optimisticLockRetry.execute(() ->
+                transactionTemplate.execute(status -> createCartOrder(memberId, counts)));
+    }
+
+    /**
+     * [장바구니 주문 생성] - 주문 트랜잭션 한번의 시도
+     */
+    private Long createCartOrder(Long memberId, SortedMap<Long, Integer> counts) {
+        Member member = memberRepository.findById(memberId)
+                .orElseThrow(() -> new NoSuchElementException("존재하지 않는 회원입니다. memberId=" + memberId));
+        Map<Long, Item> items = findItemMap(counts.keySet()); // in 쿼리 한번
+        Order order = placeOrder(member, counts, items);
+        recordOrders(Collections.singletonList(order));
+        orderChangeTracker.markChanged();
+        return order.getId();
+    }
+
+    /**
+     * [대량 주문 등록] <br/>
+     * 여러 주문을 한 트랜잭션으로 등록한다. (전부 등록되거나, 하나라도 실패하면 전부 롤백) <br/>
+     * bulk-batch-size 건마다 회원/상품을 in 쿼리로 한번에 조회하고, 주문을 모두 persist 한 뒤 flush/clear 한다. <br/>
+     * -> pooled 시퀀스로 id를 미리 할당받으므로 insert가 JDBC batch(hibernate.jdbc.batch_size)로 묶이고, <br/>
+     *    영속성 컨텍스트가 batch 크기 이상 커지지 않는다.
+     * @param commands 주문 명령 목록
+     * @return 등록된 주문 수
+     */
+    @Transactional(readOnly = false)
+    public int orderBulk(List<OrderCommand> commands) {
+        for (List<OrderCommand> batch : IdChunks.partition(commands, bulkBatchSize)) {
+            Map<Long, Member> members = memberRepository.findAllById(batch.stream()
+                            .map(OrderCommand::getMemberId)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(Member::getId, member -> member));
+            List<SortedMap<Long, Integer>> counts = batch.stream()
+                    .map(command -> mergeLines(command.getLines()))
+                    .collect(Collectors.toList());
+            Map<Long, Item> items = findItemMap(counts.stream()
+                    .flatMap(count -> count.keySet().stream())
+                    .collect(Collectors.toCollection(TreeSet::new)));
+            List<Order> orders = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Member member = members.get(batch.get(i).getMemberId());
+                if (member == null) {
+                    throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + batch.get(i).getMemberId());
+                }
+                orders.add(placeOrder(member, counts.get(i), items));
+            }
+            recordOrders(orders); // 회원당 update 한번
+            orderRepository.flushAndClear(); // batch insert 후 영속성 컨텍스트 비우기
+        }
+        orderChangeTracker.markChanged();
+        return commands.size();
+    }
+
+    /**
+     * [묶음 주문] - 그룹 커밋 (OrderBatcher) <br/>
+     * 동시에 들어온 주문 여러건을 한 트랜잭션(커밋 한번)으로 처리하고, 주문마다 결과(주문 id 또는 실패)를 돌려준다. <br/>
+     * 상품 한개짜리 주문의 재고 부족 등 아무것도 바꾸기 전에 실패한 주문은 그 주문만 실패 처리하고 나머지는 계속한다. <br/>
+     * 그 외의 실패(여러 상품 주문의 일부 재고 차감 후 실패, DB 오류, 커밋시 버전 충돌 등)는 묶음 전체를 롤백하고 <br/>
+     * 주문마다 각자의 트랜잭션으로 다시 실행한다. (결과는 항상 주문 단위로 독립적)
+     * @param commands 주문 명령 목록
+     * @return 명령 순서대로의 주문 결과
+     */
+    @Transactional(readOnly = false, propagation = Propagation.SUPPORTS)
+    public List<OrderResult> orderBatch(List<OrderCommand> commands) {
+        try {
+            return transactionTemplate.execute(status -> placeOrders(commands));
+        } catch (RuntimeException e) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw e; // 바깥 트랜잭션에 참여중이면 건별로 다시 실행할 수 없다.
+            }
+            List<OrderResult> results = new ArrayList<>(commands.size());
+            for (OrderCommand command : commands) {
+                try {
+                    results.add(OrderResult.success(orderCart(command.getMemberId(), command.getLines())));
+                } catch (RuntimeException error) {
+                    results.add(OrderResult.failure(error));
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * [묶음 주문 생성] - 묶음 트랜잭션 한번의 시도
+     */
+    private List<OrderResult> placeOrders(List<OrderCommand> commands) {
+        Map<Long, Member> members = memberRepository.findAllById(commands.stream()
+                        .map(OrderCommand::getMemberId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Member::getId, member -> member));
+        Map<Long, Item> items = new HashMap<>();
+        itemRepository.findAllById(commands.stream()
+                        .flatMap(command -> command.getLines() == null ? Stream.<OrderLine>empty() : command.getLines().stream())
+                        .map(OrderLine::getItemId)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .forEach(item -> items.put(item.getId(), item));
+
+        List<OrderResult> results = new ArrayList<>(commands.size());
+        List<Order> orders = new ArrayList<>(commands.size());
+        for (OrderCommand command : commands) {
+            try {
+                SortedMap<Long, Integer> counts = mergeLines(command.getLines());
+                Member member = members.get(command.getMemberId());
+                if (member == null) {
+                    throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + command.getMemberId());
+                }
+                if (!items.keySet().containsAll(counts.keySet())) {
+                    throw new IllegalArgumentException("존재하지 않는 상품이 있습니다.");
+                }
+                Order order = placeOrder(member, counts, items);
+                orders.add(order);
+                results.add(OrderResult.success(order.getId()));
+            } catch (NotEnoughStockException | IllegalArgumentException e) {
+                if (e instanceof NotEnoughStockException && command.getLines().size() > 1) {
+                    throw e; // 일부 라인의 재고가 이미 줄었을 수 있다. -> 묶음 롤백 후 건별 실행
+                }
+                results.add(OrderResult.failure(e)); // 아무것도 바꾸지 않고 실패 -> 이 주문만 실패
+            }
+        }
+        recordOrders(orders);
+        orderChangeTracker.markChanged();
+        return results;
+    }
+
+    /**
+     * 상품 id -> 상품 (item_id 오름차순)
+     */
+    private Map<Long, Item> findItemMap(Collection<Long> itemIds) {
+        List<Item> items = itemRepository.findAllById(new ArrayList<>(itemIds));
+        if (items.size() != itemIds.size()) {
+            throw new IllegalArgumentException("존재하지 않는 상품이 있습니다.");
+        }
+        Map<Long, Item> itemMap = new LinkedHashMap<>();
+        items.forEach(item -> itemMap.put(item.getId(), item));
+        return itemMap;
+    }
+
+    /**
+     * [주문 한건 생성 및 저장] <br/>
+     * 재고는 item_id 오름차순(counts 순서)으로 줄인다. <br/>
+     * 재고가 부족한 라인이 있으면 부족한 상품을 모두 모아서 NotEnoughStockException 하나로 던진다.
+     */
+    private Order placeOrder(Member member, SortedMap<Long, Integer> counts, Map<Long, Item> items) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        delivery.setStatus(DeliveryStatus.READY);
+
+        List<OrderItem> orderItems = new ArrayList<>(counts.size());
+        List<Long> shortItemIds = new ArrayList<>();
+        counts.forEach((itemId, count) -> {
+            Item item = items.get(itemId);
+            try {
+                orderItems.add(OrderItem.createOrderItem(item, item.getPrice(), count, stockHandler));
+            } catch (NotEnoughStockException e) {
+                shortItemIds.add(itemId); // 나머지 라인도 검사해서 부족한 상품을 한번에 알려준다.
+            }
+        });
+        if (!shortItemIds.isEmpty()) {
+            throw new NotEnoughStockException("need more stock : items " + shortItemIds, shortItemIds);
+        }
+
+        Order order = Order.createOrder(member, delivery, orderItems.toArray(new OrderItem[0]));
+        orderRepository.save(order);
+        orderSummaryRepository.save(OrderSummary.createOrderSummary(order));
+        orderOutboxRepository.save(OrderOutbox.createOrderOutbox(OrderEventType.ORDER_CREATED, order.getId()));
+        return order;
+    }
+
+    /**
+     * [회원별 주문 통계 반영] <br/>
+     * 주문을 회원별로 합쳐서(주문 수, 금액, 마지막 주문 일시) 회원당 증가 update 한번씩 실행한다. (member_id 오름차순) <br/>
+     * 주문과 같은 트랜잭션이므로 주문이 롤백되면 통계도 함께 롤백된다. <br/>
+     * 통계 row가 없는 회원은 이번 주문으로 row를 만들고, 이전 주문은 재구성(MemberService.reconcileOrderStats)에서 채워진다.
+     */
+    private void recordOrders(List<Order> orders) {
+        Map<Long, List<Order>> ordersByMember = orders.stream()
+                .collect(Collectors.groupingBy(order -> order.getMember().getId(), TreeMap::new, Collectors.toList()));
+        ordersByMember.forEach((memberId, memberOrders) -> memberOrderStatsRepository.increment(memberId,
+                memberOrders.size(),
+                memberOrders.stream().mapToLong(Order::getTotalPrice).sum(),
+                memberOrders.stream().map(Order::getOrderDate).max(Comparator.naturalOrder()).get()));
+    }
+
+    /**
+     * 주문 라인 검증 및 같은 상품 수량 합치기 (item_id 오름차순)
+     */
+    private SortedMap<Long, Integer> mergeLines(List<OrderLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("주문 라인이 비어있습니다.");
+        }
+        SortedMap<Long, Integer> counts = new TreeMap<>();
+        for (OrderLine line : lines) {
+            if (line.getItemId() == null || line.getCount() <= 0) {
+                throw new IllegalArgumentException("잘못된 주문 라인입니다. itemId=" + line.getItemId() + ", count=" + line.getCount());
+            }
+            counts.merge(line.getItemId(), line.getCount(), Integer::sum);
+        }
+        return counts;
+    }
+
     /**
      * [주문취소] <br/>
      * 주문을 취소하기 위해서 주문한 객체를 조회해와야 한다. <br/>
      * 조회한 주문 객체에서 cancel() 메서드를 호출하여 주문을 취소한다. <br/>
      * JPA의 강점 : 트랜잭션이 commit되는 시점에 변경내역을 감지해서 update 쿼리를 날린다. <br/>
-     * 단, Transaction 내에서 DirtyChecking이 일어나므로 @Transaction(readOnly=false)를 선언해줘야만 한다.
+     * 단, Transaction 내에서 DirtyChecking이 일어나므로 @Transaction(readOnly=false)를 선언해줘야만 한다. <br/>
+     * 재고 복구도 상품 버전이 충돌할 수 있으므로 주문과 같이 새 트랜잭션으로 재시도한다.
      */
-    @Transactional(readOnly = false)
+    @Transactional(readOnly = false, propagation = Propagation.SUPPORTS)
     public void cancelOrder(Long orderId) {
+        optimisticLockRetry.execute(() -> transactionTemplate.execute(status -> {
+            cancel(orderId);
+            return null;
+        }));
+    }
+
+    /**
+     * [주문 취소] - 취소 트랜잭션 한번의 시도
+     */
+    private void cancel(Long orderId) {
         //주문 엔터티 조회
         Order order = orderRepository.findOne(orderId);
-        order.cancel();
+        order.cancel(stockHandler);
+        orderSummaryRepository.updateStatus(orderId, order.getStatus()); // 주문 요약 조회 모델 함께 갱신
+        orderOutboxRepository.save(OrderOutbox.createOrderOutbox(OrderEventType.ORDER_CANCELLED, orderId));
+        memberOrderStatsRepository.decrement(order.getMember().getId(), 1, order.getTotalPrice()); // 회원별 주문 통계 함께 갱신
+        orderChangeTracker.markChanged();
+    }
+    /**
+     * [주문 일괄 취소] - 주문 id 목록 <br/>
+     * 주문을 하나씩 조회해서 취소하지 않고 <br/>
+     * 1. 취소 가능한 주문(주문 상태, 배송완료 아님)의 id만 조회 <br/>
+     * 2. 주문 상태를 update 한번으로 취소 <br/>
+     * 3. 주문상품 수량을 상품별로 합쳐서 상품당 update 한번씩 재고 복구 (item_id 오름차순, 상품 엔티티 조회 X) <br/>
+     * 조회와 update 사이에 다른 트랜잭션이 주문을 취소/배송완료하면 변경된 row 수가 달라지므로 새 트랜잭션으로 다시 시도한다.
+     * @param orderIds 취소할 주문 id 목록
+     * @return 취소된 주문 id / 취소하지 못한 주문 id
+     */
+    @Transactional(readOnly = false, propagation = Propagation.SUPPORTS)
+    public BulkCancelResult cancelOrders(Collection<Long> orderIds) {
+        List<Long> requested = new ArrayList<>(new TreeSet<>(orderIds));
+        return optimisticLockRetry.execute(() -> transactionTemplate.execute(status -> {
+            List<Long> cancelled = cancelAll(orderRepository.findCancelableIds(requested));
+            List<Long> rejected = new ArrayList<>(requested);
+            rejected.removeAll(new HashSet<>(cancelled));
+            return new BulkCancelResult(cancelled, rejected);
+        }));
+    }
+
+    /**
+     * [주문 일괄 취소] - 검색조건 (회원 이름, 주문 상태) <br/>
+     * 검색된 주문 id로 일괄 취소한다. 검색되었지만 취소하지 못한 주문(이미 취소, 배송완료)은 rejectedIds로 응답한다. <br/>
+     * 회원 이름이 비어있으면 조건이 무시되어 전체 주문이 취소되므로 IllegalArgumentException
+     */
+    @Transactional(readOnly = false, propagation = Propagation.SUPPORTS)
+    public BulkCancelResult cancelOrders(OrderSearch orderSearch) {
+        if (orderSearch == null || !StringUtils.hasText(orderSearch.getMemberName())) {
+            throw new IllegalArgumentException("취소할 주문의 회원 이름이 필요합니다.");
+        }
+        return cancelOrders(orderRepository.findIds(orderSearch));
     }
+
+    /**
+     * [주문 일괄 취소] - 일괄 취소 트랜잭션 한번의 시도
+     * @param orderIds 취소 가능한 주문 id 목록
+     * @return 취소된 주문 id 목록
+     */
+    private List<Long> cancelAll(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return orderIds;
+        }
+        if (orderRepository.cancelAll(orderIds) != orderIds.size()) {
+            throw new OptimisticLockingFailureException("주문 상태가 동시에 변경되었습니다.");
+        }
+        SortedMap<Long, Integer> counts = orderRepository.sumItemCounts(orderIds); // 상품별 수량 합계 (item_id 오름차순)
+        if (stockHandler.isSeparateStock()) { // reservation : 반환 기록 + 커밋 후 카운터 증가
+            Map<Long, Item> items = findItemMap(counts.keySet());
+            counts.forEach((itemId, count) -> stockHandler.addStock(items.get(itemId), count));
+        } else { // entity, atomic : 상품 엔티티 조회 없이 상품당 update 한번
+            counts.forEach(itemRepository::increaseStock);
+        }
+        orderSummaryRepository.updateStatus(orderIds, OrderStatus.CANCEL);
+        orderIds.forEach(orderId -> orderOutboxRepository.save(OrderOutbox.createOrderOutbox(OrderEventType.ORDER_CANCELLED, orderId)));
+        memberOrderStatsRepository.decrementByOrders(orderIds); // 회원별로 합쳐서 감소
+        orderChangeTracker.markChanged();
+        return orderIds;
+    }
+
     /**
      * [주문검색]
      */
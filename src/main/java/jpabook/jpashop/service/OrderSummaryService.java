@@ -0,0 +1,34 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.order.simplequery.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 주문 요약 조회 모델(order_summary) 관리 <br/>
+ * 평소에는 OrderService/MemberService가 쓰기 트랜잭션에서 함께 갱신하고, <br/>
+ * 최초 적재나 불일치 복구시에 정규화 테이블로부터 재구성한다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderSummaryService {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderChangeTracker orderChangeTracker;
+
+    /**
+     * [주문 요약 재구성] <br/>
+     * @return 재구성된 주문 요약 수
+     */
+    @Transactional(readOnly = false)
+    public int rebuild() {
+        int count = orderSummaryRepository.rebuild();
+        log.info("order_summary rebuilt : {} rows", count);
+        orderChangeTracker.markChanged(); // 불일치 복구로 V4 결과가 바뀔 수 있다.
+        return count;
+    }
+}
@@ -0,0 +1,262 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.StockHandler;
+import jpabook.jpashop.domain.item.StockReservation;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * [재고 예약 엔진] - jpashop.order.stock-mode=reservation <br/>
+ * 인기상품 주문이 모두 같은 item row 락을 기다리지 않도록, 상품별 남은 재고를 메모리 카운터(CAS)로 관리한다. <br/>
+ * - 주문 : 카운터에서 먼저 예약하고(부족하면 즉시 NotEnoughStockException), 주문 트랜잭션에서 예약 기록(stock_reservation)을 insert 한다. <br/>
+ * - 롤백 : 트랜잭션이 롤백되면 예약한 수량을 카운터에 돌려준다. <br/>
+ * - 취소 : 반환 기록(음수)을 insert 하고, 커밋된 뒤에 카운터를 늘린다. (롤백된 취소로 재고가 늘지 않도록) <br/>
+ * - 반영 : 단일 스레드가 짧은 주기(또는 기록이 threshold 이상 쌓이면) 예약 기록을 상품별로 합쳐서 item에 반영하고 삭제한다. <br/>
+ * 카운터는 시작할 때 모든 상품을 [item.stock_quantity - 반영되지 않은 예약 합계]로 적재하므로 재시작해도 커밋된 예약을 잃지 않는다. <br/>
+ * (시작 후 등록된 상품은 처음 사용할 때 상품별 락 안에서 커밋된 데이터로 적재한다.) <br/>
+ * 주의 : 카운터는 인스턴스 메모리에 있으므로 같은 상품을 여러 인스턴스에서 동시에 주문하는 구성에서는 사용할 수 없다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.order.stock-mode", havingValue = "reservation")
+public class StockReservationEngine implements StockHandler {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction; // 카운터 적재 - 호출한 트랜잭션과 분리
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>(); // 상품 id -> 남은 재고
+    private final AtomicInteger pending = new AtomicInteger(); // 커밋되었지만 반영되지 않은 예약 기록 수 (대략)
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private final int flushThreshold;
+    private final int flushBatchSize;
+
+    public StockReservationEngine(StockReservationRepository stockReservationRepository,
+                                  ItemRepository itemRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${jpashop.order.reservation.flush-interval-ms:200}") long flushIntervalMillis,
+                                  @Value("${jpashop.order.reservation.flush-threshold:500}") int flushThreshold,
+                                  @Value("${jpashop.order.reservation.flush-batch-size:5000}") int flushBatchSize) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newTransaction.setReadOnly(true);
+        this.flushThreshold = flushThreshold;
+        this.flushBatchSize = flushBatchSize;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("stock-flush-");
+        threadFactory.setDaemon(true);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * [카운터 적재] - 시작시 (주문을 받기 전) <br/>
+     * 모든 상품의 남은 재고를 한 문장으로 읽어서 적재한다. (예약 반영과 어긋나지 않는 같은 스냅샷)
+     */
+    @PostConstruct
+    public void loadCounters() {
+        Map<Long, Integer> stocks = transactionTemplate.execute(status -> stockReservationRepository.findAllAvailableStock());
+        stocks.forEach((itemId, stock) -> available.put(itemId, new AtomicInteger(stock)));
+    }
+
+    /**
+     * [재고 예약] - 주문 <br/>
+     * 카운터에서 수량을 빼고(CAS), 같은 트랜잭션에 예약 기록을 남긴다.
+     */
+    @Override
+    public void removeStock(Item item, int quantity) {
+        requireTransaction();
+        AtomicInteger counter = counter(item.getId());
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                throw new NotEnoughStockException("need more stock");
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    committed();
+                } else if (status == STATUS_ROLLED_BACK) {
+                    counter.addAndGet(quantity); // 예약 반환
+                }
+                // STATUS_UNKNOWN : 커밋 여부를 알 수 없으면 반환하지 않는다. (초과 판매보다 일시적 판매 누락이 안전)
+            }
+        });
+        stockReservationRepository.save(StockReservation.createStockReservation(item.getId(), quantity));
+    }
+
+    /**
+     * [재고 반환] - 주문 취소 <br/>
+     * 반환 기록을 남기고 커밋된 뒤에 카운터를 늘린다.
+     */
+    @Override
+    public void addStock(Item item, int quantity) {
+        requireTransaction();
+        AtomicInteger counter = counter(item.getId());
+        stockReservationRepository.save(StockReservation.createStockReservation(item.getId(), -quantity));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter.addAndGet(quantity);
+                committed();
+            }
+        });
+    }
+
+    /**
+     * [재고 직접 수정] - 상품 수정 <br/>
+     * item.stock_quantity를 직접 바꾸면 메모리 카운터와 어긋나므로, 차이만큼 예약/반환 기록으로 남긴다. <br/>
+     * 차이는 DB 재고가 아니라 남은 재고(카운터 = DB 재고 - 반영되지 않은 예약)와 비교한다. <br/>
+     * - 줄이기 : 카운터를 입력한 수량으로 바로 바꾸고(CAS) 바꾼 값과의 차이를 예약으로 기록한다. (롤백되면 돌려준다, 재고 부족 예외 X) <br/>
+     * - 늘리기 : 차이를 반환으로 기록하고 커밋된 뒤에 카운터를 늘린다. (롤백된 수정으로 재고가 늘지 않도록) <br/>
+     * -> 반영 후 상품 재고가 입력한 수량이 된다. (수정 중에 들어온 주문은 그만큼 더 줄어든다)
+     */
+    @Override
+    public void setStock(Item item, int quantity) {
+        requireTransaction();
+        AtomicInteger counter = counter(item.getId());
+        int current;
+        do {
+            current = counter.get();
+            if (current <= quantity) {
+                if (current < quantity) {
+                    addStock(item, quantity - current);
+                }
+                return;
+            }
+        } while (!counter.compareAndSet(current, quantity));
+
+        int reserved = current - quantity; // CAS로 바꾼 값 기준의 차이
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    committed();
+                } else if (status == STATUS_ROLLED_BACK) {
+                    counter.addAndGet(reserved); // 예약 반환
+                }
+            }
+        });
+        stockReservationRepository.save(StockReservation.createStockReservation(item.getId(), reserved));
+    }
+
+    @Override
+    public boolean isSeparateStock() {
+        return true; // 반영 전 예약 기록 + 메모리 카운터
+    }
+
+    /**
+     * 상품 카운터 - 시작 후 등록된 상품은 상품별 락(computeIfAbsent) 안에서 새 트랜잭션으로 적재 <br/>
+     * 호출한 트랜잭션의 스냅샷/미반영 변경과 섞이지 않도록 커밋된 데이터만 읽는다. <br/>
+     * 새 트랜잭션에서 보이지 않는 상품은 호출한 트랜잭션에서 등록한 상품이므로 (다른 예약이 있을 수 없다) 그 트랜잭션에서 읽는다.
+     */
+    private AtomicInteger counter(Long itemId) {
+        return available.computeIfAbsent(itemId, id -> {
+            Integer stock = newTransaction.execute(status -> stockReservationRepository.findAvailableStock(id));
+            if (stock == null) {
+                stock = stockReservationRepository.findAvailableStock(id);
+            }
+            if (stock == null) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + id);
+            }
+            return new AtomicInteger(stock);
+        });
+    }
+
+    private void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("재고 예약은 트랜잭션 안에서만 가능합니다.");
+        }
+    }
+
+    private void committed() {
+        if (pending.incrementAndGet() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            while (flush() == flushBatchSize) {
+                // 한번에 다 반영하지 못했으면 이어서 반영
+            }
+        } catch (RuntimeException e) {
+            log.warn("stock reservation flush failed - will retry", e); // 기록은 그대로 남아있으므로 다음 주기에 다시 반영
+        }
+    }
+
+    /**
+     * [예약 반영] <br/>
+     * 예약 기록을 상품별로 합쳐서 상품 재고에 반영하고, 반영한 기록을 같은 트랜잭션에서 삭제한다. <br/>
+     * 상품 재고와 예약 합계가 같은 양만큼 함께 바뀌므로 남은 재고(카운터)는 변하지 않는다.
+     * @return 반영한 예약 기록 수
+     */
+    public int flush() {
+        Integer flushed = transactionTemplate.execute(status -> {
+            List<StockReservation> reservations = stockReservationRepository.findPending(flushBatchSize);
+            if (reservations.isEmpty()) {
+                return 0;
+            }
+            Map<Long, Integer> deltas = reservations.stream()
+                    .collect(Collectors.groupingBy(StockReservation::getItemId,
+                            Collectors.summingInt(StockReservation::getQuantity)));
+            deltas.forEach((itemId, reserved) -> {
+                if (reserved != 0) {
+                    itemRepository.increaseStock(itemId, -reserved);
+                }
+            });
+            stockReservationRepository.deleteAll(reservations.stream()
+                    .map(StockReservation::getId)
+                    .collect(Collectors.toList()));
+            return reservations.size();
+        });
+        pending.updateAndGet(count -> Math.max(0, count - flushed)); // 재시작 전 기록도 반영되므로 음수가 되지 않게
+        return flushed;
+    }
+
+    /**
+     * 종료 전 남은 예약 반영
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+}
@@ -0,0 +1,62 @@
+package jpabook.jpashop.service.order.query;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderFlatFolder;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * 주문 V6 플랫 조회 스트리밍 내보내기 <br/>
+ * 조회(스트림) -> 주문 단위 접기(OrderFlatFolder) -> JSON 쓰기를 한 row씩 흘려보낸다. <br/>
+ * 힙에는 현재 주문 하나와 JDBC fetch size 만큼의 row만 올라가므로 주문 테이블 크기와 무관하게 메모리가 일정하다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int FLUSH_INTERVAL = 100; // 주문 n건마다 응답으로 밀어낸다.
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper; // Hibernate5Module 등 스프링 MVC와 같은 설정 사용
+
+    /**
+     * [주문 전체 내보내기] <br/>
+     * JSON 배열로 주문을 하나씩 쓴다. 첫 주문이 완성되는 즉시 응답 전송이 시작된다.
+     * @param out 응답 OutputStream
+     */
+    public void exportFlat(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(OrderQueryDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE); // flush는 FLUSH_INTERVAL 단위로 직접 한다.
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Stream<OrderFlatDto> rows = orderQueryRepository.streamAllByDto_flat()) {
+            generator.writeStartArray();
+            int[] written = {0};
+            OrderFlatFolder folder = new OrderFlatFolder(order -> {
+                try {
+                    writer.writeValue(generator, order);
+                    if (written[0]++ % FLUSH_INTERVAL == 0) { // 첫 주문 포함
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // 클라이언트 연결 종료 등 -> 스트림 중단
+                }
+            });
+            rows.forEach(folder::accept);
+            folder.finish();
+            generator.writeEndArray();
+        }
+    }
+}
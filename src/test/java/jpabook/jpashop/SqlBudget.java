@@ -0,0 +1,26 @@
+package jpabook.jpashop;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * [SQL 쿼리 예산 검증 헬퍼] <br/>
+ * SqlStatisticsFilter가 기록한 X-Sql-Count 응답 헤더로 요청당 실행된 statement 수를 검증한다. <br/>
+ * ex) mockMvc.perform(get("/api/v5/orders")).andExpect(sqlCountAtMost(2));
+ */
+public abstract class SqlBudget {
+
+    /**
+     * 요청 한번에 실행된 statement 수가 max 이하여야 한다. (N+1 회귀 검출)
+     */
+    public static ResultMatcher sqlCountAtMost(int max) {
+        return result -> {
+            String count = result.getResponse().getHeader(SqlStatistics.COUNT_HEADER);
+            assertThat(count).as("%s 응답 헤더가 있어야 한다.", SqlStatistics.COUNT_HEADER).isNotNull();
+            assertThat(Integer.parseInt(count))
+                    .as("%s %s 쿼리 예산 초과", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                    .isLessThanOrEqualTo(max);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package jpabook.jpashop.api;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static jpabook.jpashop.SqlBudget.sqlCountAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 회원 조회 API 쿼리 예산 테스트 <br/>
+ * (InitDb 샘플데이터 : 회원 2명)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberApiQueryBudgetTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void 회원조회_V2_키셋_페이징() throws Exception {
+        // 프로젝션(id, name) 쿼리 한번, count 쿼리 없음
+        String response = mockMvc.perform(get("/api/v2/members").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(sqlCountAtMost(1))
+                .andReturn().getResponse().getContentAsString();
+        String nextCursor = JsonPath.read(response, "$.nextCursor");
+
+        mockMvc.perform(get("/api/v2/members").param("size", "1").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(sqlCountAtMost(1));
+    }
+}
@@ -0,0 +1,88 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 주문 API 오류 응답 테스트 <br/>
+ * 잘못된 요청은 500이 아니라 400/404로 응답해야 한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderApiErrorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void 빈_주문_라인은_400() throws Exception {
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"memberId\":1, \"lines\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
+    @Test
+    public void 없는_회원은_404() throws Exception {
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"memberId\":999999, \"lines\":[{\"itemId\":1, \"count\":1}]}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void 없는_상품의_대량_주문은_400() throws Exception {
+        mockMvc.perform(post("/api/v1/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[{\"memberId\":999999, \"lines\":[{\"itemId\":999999, \"count\":1}]}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 취소할_주문_조건이_없으면_400() throws Exception {
+        mockMvc.perform(post("/api/v1/orders/cancel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 조작된_커서는_400() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", "@@@"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v2/members").param("cursor", "@@@"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 음수_limit은_최소_크기로_조회() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1));
+    }
+
+    @Test
+    public void 주문일시_없는_커서() throws Exception {
+        // "0|" : 주문일시가 없는(null) 주문 다음부터 주문일시 정렬 조회
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", "MHw"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 잘못된_주문_id_범위는_400() throws Exception {
+        mockMvc.perform(get("/api/v5.1/orders").param("fromId", "10").param("toId", "1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v5.1/orders").param("fromId", "0").param("toId", String.valueOf(Long.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+    }
+}
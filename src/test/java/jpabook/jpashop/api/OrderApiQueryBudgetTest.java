@@ -0,0 +1,112 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static jpabook.jpashop.SqlBudget.sqlCountAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 주문 조회 API 쿼리 예산 테스트 <br/>
+ * 페치조인/batch fetch/DTO 조회로 최적화한 API가 N+1로 회귀하면 실패한다. <br/>
+ * (InitDb 샘플데이터 : 주문 2건, 주문당 주문상품 2건)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderApiQueryBudgetTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void 주문조회_V1_엔티티_batch_fetch() throws Exception {
+        // Order(1) Member(1) Delivery(1) OrderItems(1) Item(1) - 엔티티 직접 노출이지만 default_batch_fetch_size로 N+1은 없다.
+        mockMvc.perform(get("/api/v1/orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(5));
+    }
+
+    @Test
+    public void 주문조회_V2_batch_fetch() throws Exception {
+        // Order(1) Member(1) Delivery(1) OrderItems(1) Item(1) - default_batch_fetch_size
+        mockMvc.perform(get("/api/v2/orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(5));
+    }
+
+    @Test
+    public void 주문조회_V3_컬렉션_페치조인() throws Exception {
+        mockMvc.perform(get("/api/v3/orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(1));
+    }
+
+    @Test
+    public void 주문조회_V3_1_페이징() throws Exception {
+        // Order & Member & Delivery(1) OrderItems(1) Item(1)
+        mockMvc.perform(get("/api/v3.1/orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(3));
+    }
+
+    @Test
+    public void 주문조회_V3_2_키셋_페이징() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(3));
+    }
+
+    @Test
+    public void 주문조회_V4_DTO_N_plus_1() throws Exception {
+        // Order(1) + 주문마다 OrderItems(N) - 의도된 N+1, 주문 수보다 많아지면 회귀
+        long orderCount = em.createQuery("select count(o) from Order o", Long.class).getSingleResult();
+        mockMvc.perform(get("/api/v4/orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(1 + (int) orderCount));
+    }
+
+    @Test
+    public void 주문조회_V5_in_쿼리() throws Exception {
+        mockMvc.perform(get("/api/v5/orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(2));
+    }
+
+    @Test
+    public void 주문조회_V5_1_동시조회() throws Exception {
+        // 주문(요청 스레드) 1 + 주문상품(작업 스레드) 1
+        mockMvc.perform(get("/api/v5.1/orders").param("fromId", "0").param("toId", "999"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(2));
+    }
+
+    @Test
+    public void 주문조회_V6_플랫() throws Exception {
+        mockMvc.perform(get("/api/v6/orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(1));
+    }
+
+    @Test
+    public void 심플주문조회_V3_페치조인() throws Exception {
+        mockMvc.perform(get("/api/v3/simple-orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(1));
+    }
+
+    @Test
+    public void 심플주문조회_V4_DTO() throws Exception {
+        mockMvc.perform(get("/api/v4/simple-orders"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCountAtMost(1));
+    }
+}
@@ -0,0 +1,50 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static jpabook.jpashop.SqlBudget.sqlCountAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 주문 목록 조건부 GET 테스트 (jpashop.order.not-modified.enabled=true) <br/>
+ * 변경이 없으면 주문 테이블을 조회하지 않고 304로 응답해야 한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.order.not-modified.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:order-not-modified"
+})
+@AutoConfigureMockMvc
+class OrderNotModifiedTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void 주문조회_변경없으면_304() throws Exception {
+        String etag = mockMvc.perform(get("/api/v5/orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // 쿼리 없이 304
+        mockMvc.perform(get("/api/v5/orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(sqlCountAtMost(0));
+    }
+
+    @Test
+    public void 마지막_변경_1초_후에는_Last_Modified_응답() throws Exception {
+        // 마지막 변경(샘플 데이터)이 1초 이상 지나면 Last-Modified를 내려준다.
+        Thread.sleep(1100);
+        mockMvc.perform(get("/api/v5/orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+}
@@ -0,0 +1,18 @@
+package jpabook.jpashop.bench;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 조건부 update 한번 (ItemRepository.decreaseStock)
+ */
+@TestPropertySource(properties = {
+        "jpashop.order.stock-mode=atomic",
+        "spring.datasource.url=jdbc:h2:mem:bench-stock-atomic"
+})
+class AtomicStockContentionBenchmark extends StockContentionBenchmark {
+
+    @Override
+    String mode() {
+        return "atomic";
+    }
+}
@@ -0,0 +1,77 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.OrderLine;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [주문 등록 처리량 벤치마크] <br/>
+ * 같은 수의 주문을 건별 트랜잭션(OrderService.order)과 대량 등록(OrderService.orderBulk)으로 등록하고 orders/s를 비교한다. <br/>
+ * 대량 등록은 pooled 시퀀스 + JDBC batch insert + batch 단위 flush/clear를 사용한다. <br/>
+ * 실행 : ./gradlew benchmark --tests '*BulkOrderBenchmark' -Dbench.orders=20000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bench-bulk",
+        "logging.level.org.hibernate.sql=warn",
+        "logging.level.org.hibernate.type=warn",
+        "logging.level.p6spy=warn",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+class BulkOrderBenchmark {
+
+    static final int ORDERS = Integer.getInteger("bench.orders", 5000);
+
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+
+    @Test
+    void 건별_등록_대_대량_등록() {
+        Member member = new Member();
+        member.setName("bench-bulk");
+        member.setAddress(new Address("서울", "1", "12345"));
+        Long memberId = memberService.join(member);
+        Book book = new Book();
+        book.setName("bench-bulk-book");
+        book.setPrice(1000);
+        book.setStockQuantity(Integer.MAX_VALUE / 2);
+        itemService.saveItem(book);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.order(memberId, book.getId(), 1);
+        }
+        print("single", start);
+
+        List<OrderCommand> commands = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            commands.add(new OrderCommand(memberId, Collections.singletonList(new OrderLine(book.getId(), 1))));
+        }
+        start = System.nanoTime();
+        orderService.orderBulk(commands);
+        print("bulk", start);
+    }
+
+    private void print(String name, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.printf("[%s] orders=%d elapsed=%.2fs throughput=%.1f orders/s%n", name, ORDERS, seconds, ORDERS / seconds);
+    }
+}
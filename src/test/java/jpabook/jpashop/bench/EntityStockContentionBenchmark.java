@@ -0,0 +1,18 @@
+package jpabook.jpashop.bench;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 엔티티 변경감지 + @Version 낙관적 락 재시도
+ */
+@TestPropertySource(properties = {
+        "jpashop.order.stock-mode=entity",
+        "spring.datasource.url=jdbc:h2:mem:bench-stock-entity"
+})
+class EntityStockContentionBenchmark extends StockContentionBenchmark {
+
+    @Override
+    String mode() {
+        return "entity";
+    }
+}
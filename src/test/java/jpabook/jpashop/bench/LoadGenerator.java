@@ -0,0 +1,110 @@
+package jpabook.jpashop.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * [부하 생성기] <br/>
+ * concurrency 개의 스레드가 총 requests 번 작업을 나눠서 실행하고 <br/>
+ * 처리량(ops/s)과 지연시간 분포(p50, p99, max)를 계산한다. <br/>
+ * 작업은 성공 여부를 반환하고, 예외도 실패로 집계한다.
+ */
+public abstract class LoadGenerator {
+
+    public static LoadResult run(String name, int concurrency, int requests, Callable<Boolean> task) {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            for (int worker = 0; worker < concurrency; worker++) {
+                executor.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < requests) {
+                        long begin = System.nanoTime();
+                        boolean success;
+                        try {
+                            success = task.call();
+                        } catch (Exception e) {
+                            success = false;
+                        }
+                        latencies[index] = System.nanoTime() - begin;
+                        if (!success) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS); // 모든 작업이 끝날때까지 대기
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("부하 생성 중 인터럽트", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return new LoadResult(name, concurrency, latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * 부하 측정 결과
+     */
+    public static class LoadResult {
+        private final String name;
+        private final int concurrency;
+        private final int requests;
+        private final int errors;
+        private final double throughput; // ops/s
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        LoadResult(String name, int concurrency, long[] latencies, int errors, long elapsedNanos) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            this.name = name;
+            this.concurrency = concurrency;
+            this.requests = sorted.length;
+            this.errors = errors;
+            this.throughput = sorted.length / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+            this.p50Millis = toMillis(percentile(sorted, 0.50));
+            this.p99Millis = toMillis(percentile(sorted, 0.99));
+            this.maxMillis = sorted.length == 0 ? 0 : toMillis(sorted[sorted.length - 1]);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)];
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        public int getSuccesses() {
+            return requests - errors;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%s] concurrency=%d requests=%d errors=%d throughput=%.1f ops/s p50=%.2fms p99=%.2fms max=%.2fms",
+                    name, concurrency, requests, errors, throughput, p50Millis, p99Millis, maxMillis);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * [회원 가입 처리량 벤치마크] <br/>
+ * 새 이름 가입(블룸 필터에서 걸러져 중복 조회 없음)과 같은 이름 동시 가입(제약조건으로 한명만 성공)을 측정한다. <br/>
+ * 실행 : ./gradlew benchmark --tests '*MemberJoinBenchmark' -Dbench.concurrency=200 -Dbench.requests=20000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bench-member",
+        "logging.level.org.hibernate.sql=warn",
+        "logging.level.org.hibernate.type=warn",
+        "logging.level.p6spy=warn",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+class MemberJoinBenchmark {
+
+    static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 100);
+    static final int REQUESTS = Integer.getInteger("bench.requests", 10000);
+
+    @Autowired
+    MemberService memberService;
+
+    @Test
+    void 새_이름_가입() {
+        AtomicInteger sequence = new AtomicInteger();
+        System.out.println(LoadGenerator.run("join unique names", CONCURRENCY, REQUESTS,
+                () -> memberService.join(member("bench-member-" + sequence.getAndIncrement())) != null));
+    }
+
+    @Test
+    void 같은_이름_동시_가입() {
+        AtomicInteger joined = new AtomicInteger();
+        LoadGenerator.run("join duplicate name", CONCURRENCY, CONCURRENCY, () -> {
+            memberService.join(member("bench-duplicate"));
+            joined.incrementAndGet();
+            return true;
+        });
+        System.out.printf("[join duplicate name] attempts=%d joined=%d%n", CONCURRENCY, joined.get());
+    }
+
+    private Member member(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "1", "12345"));
+        return member;
+    }
+}
@@ -0,0 +1,93 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+
+/**
+ * [요청 처리 스레드 모드별 부하 벤치마크] <br/>
+ * 실제 톰캣(RANDOM_PORT)에 높은 동시성으로 요청을 보내고 처리량과 p99 지연시간을 출력한다. <br/>
+ * - GET /api/v5/orders : 조회 (JDBC 블로킹 2회) <br/>
+ * - POST /order : 주문 (쓰기 트랜잭션) <br/>
+ * 스레드 모드는 하위 클래스에서 지정한다. (PlatformThreadOrderLoadBenchmark / VirtualThreadOrderLoadBenchmark) <br/>
+ * 실행 : ./gradlew benchmark -Dbench.concurrency=500 -Dbench.requests=20000
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "logging.level.org.hibernate.sql=warn",
+                "logging.level.org.hibernate.type=warn",
+                "logging.level.p6spy=warn",
+                "decorator.datasource.p6spy.enable-logging=false"
+        })
+abstract class OrderLoadBenchmark {
+
+    static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 200);
+    static final int REQUESTS = Integer.getInteger("bench.requests", 5000);
+    static final int WARMUP_REQUESTS = Integer.getInteger("bench.warmup", 500);
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+
+    final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newCachedThreadPool())
+            .build();
+
+    /**
+     * 스레드 모드 이름 (출력용)
+     */
+    abstract String mode();
+
+    @Test
+    void 주문조회_V5() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v5/orders"))
+                .GET()
+                .build();
+        LoadGenerator.run("warmup", CONCURRENCY, WARMUP_REQUESTS, () -> send(request) == 200);
+        System.out.println(LoadGenerator.run(mode() + " GET /api/v5/orders", CONCURRENCY, REQUESTS,
+                () -> send(request) == 200));
+    }
+
+    @Test
+    void 상품주문() {
+        Member member = new Member();
+        member.setName("bench-" + mode());
+        member.setAddress(new Address("서울", "1", "12345"));
+        memberService.join(member);
+        Book book = new Book();
+        book.setName("bench-book-" + mode());
+        book.setPrice(1000);
+        book.setStockQuantity(Integer.MAX_VALUE / 2); // 재고 부족이 발생하지 않도록
+        itemService.saveItem(book);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/order"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "memberId=" + member.getId() + "&itemId=" + book.getId() + "&count=1"))
+                .build();
+        LoadGenerator.run("warmup", CONCURRENCY, WARMUP_REQUESTS, () -> send(request) == 302);
+        System.out.println(LoadGenerator.run(mode() + " POST /order", CONCURRENCY, REQUESTS,
+                () -> send(request) == 302)); // 주문 성공시 /orders 로 redirect
+    }
+
+    int send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,18 @@
+package jpabook.jpashop.bench;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 톰캣 플랫폼 스레드 풀(기본 최대 200) 모드
+ */
+@TestPropertySource(properties = {
+        "jpashop.threads.virtual=false",
+        "spring.datasource.url=jdbc:h2:mem:bench-platform"
+})
+class PlatformThreadOrderLoadBenchmark extends OrderLoadBenchmark {
+
+    @Override
+    String mode() {
+        return "platform";
+    }
+}
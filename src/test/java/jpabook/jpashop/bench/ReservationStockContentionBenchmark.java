@@ -0,0 +1,30 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.service.StockReservationEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 메모리 예약 + 지연 반영 (StockReservationEngine)
+ */
+@TestPropertySource(properties = {
+        "jpashop.order.stock-mode=reservation",
+        "spring.datasource.url=jdbc:h2:mem:bench-stock-reservation"
+})
+class ReservationStockContentionBenchmark extends StockContentionBenchmark {
+
+    @Autowired
+    StockReservationEngine stockReservationEngine;
+
+    @Override
+    String mode() {
+        return "reservation";
+    }
+
+    @Override
+    void settle() {
+        while (stockReservationEngine.flush() > 0) {
+            // 남은 예약 기록을 모두 반영
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * [상품 재고 경합 벤치마크] <br/>
+ * 여러 스레드가 동시에 OrderService.order를 호출하고 처리량(orders/s)과 최종 재고를 확인한다. <br/>
+ * - 인기상품 : 모든 주문이 상품 하나에 몰린다. (같은 row 갱신 충돌 -> 낙관적 락 재시도) <br/>
+ * - 비인기상품 : 주문이 여러 상품에 흩어진다. (충돌 거의 없음) <br/>
+ * 어느 경우든 성공한 주문 수만큼만 재고가 줄어야 한다. (초과 판매 없음) <br/>
+ * 재고 증감 방식은 하위 클래스에서 지정한다. (jpashop.order.stock-mode : entity / atomic / reservation) <br/>
+ * 실행 : ./gradlew benchmark --tests '*StockContentionBenchmark' -Dbench.concurrency=64 -Dbench.requests=5000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.sql=warn",
+        "logging.level.org.hibernate.type=warn",
+        "logging.level.p6spy=warn",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+abstract class StockContentionBenchmark {
+
+    static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 32);
+    static final int REQUESTS = Integer.getInteger("bench.requests", 2000);
+    static final int COLD_ITEMS = Integer.getInteger("bench.items", 100);
+
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+
+    /**
+     * 재고 증감 방식 이름 (출력용)
+     */
+    abstract String mode();
+
+    /**
+     * 재고 확인 전 처리 (지연 반영 방식은 여기서 반영한다.)
+     */
+    void settle() {
+    }
+
+    @Test
+    void 인기상품_단일() {
+        Long memberId = createMember("hot");
+        int stock = REQUESTS / 2; // 주문 요청의 절반만 성공할 수 있는 재고
+        Long itemId = createBook("hot-book", stock);
+
+        LoadGenerator.LoadResult result = LoadGenerator.run(mode() + " hot item x1", CONCURRENCY, REQUESTS, () -> {
+            orderService.order(memberId, itemId, 1);
+            return true;
+        });
+        System.out.println(result);
+        settle();
+
+        int remain = itemService.findOne(itemId).getStockQuantity();
+        assertThat(remain).isGreaterThanOrEqualTo(0);
+        assertThat(stock - remain).as("성공한 주문 수만큼만 재고가 줄어야 한다.").isEqualTo(result.getSuccesses());
+    }
+
+    @Test
+    void 비인기상품_다수() {
+        Long memberId = createMember("cold");
+        int stock = REQUESTS; // 재고 부족 없음
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < COLD_ITEMS; i++) {
+            itemIds.add(createBook("cold-book-" + i, stock));
+        }
+
+        LoadGenerator.LoadResult result = LoadGenerator.run(mode() + " cold items x" + COLD_ITEMS, CONCURRENCY, REQUESTS, () -> {
+            Long itemId = itemIds.get(ThreadLocalRandom.current().nextInt(itemIds.size()));
+            orderService.order(memberId, itemId, 1);
+            return true;
+        });
+        System.out.println(result);
+        settle();
+
+        long sold = itemIds.stream()
+                .mapToLong(itemId -> stock - itemService.findOne(itemId).getStockQuantity())
+                .sum();
+        assertThat(sold).as("성공한 주문 수만큼만 재고가 줄어야 한다.").isEqualTo(result.getSuccesses());
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName("bench-" + mode() + "-" + name);
+        member.setAddress(new Address("서울", "1", "12345"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name, int stock) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(1000);
+        book.setStockQuantity(stock);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
@@ -0,0 +1,20 @@
+package jpabook.jpashop.bench;
+
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 가상 스레드 모드 (VirtualThreadConfig) - JDK 21 미만 런타임에서는 건너뛴다.
+ */
+@EnabledIf("jpabook.jpashop.config.VirtualThreadConfig#isSupported")
+@TestPropertySource(properties = {
+        "jpashop.threads.virtual=true",
+        "spring.datasource.url=jdbc:h2:mem:bench-virtual"
+})
+class VirtualThreadOrderLoadBenchmark extends OrderLoadBenchmark {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
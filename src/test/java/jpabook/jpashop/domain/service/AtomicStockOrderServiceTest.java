@@ -0,0 +1,95 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 조건부 update 재고 증감 방식(jpashop.order.stock-mode=atomic) 주문 테스트 <br/>
+ * 엔티티 재고는 바뀌지 않으므로 재고는 조회 쿼리로 확인한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.order.stock-mode=atomic",
+        "spring.datasource.url=jdbc:h2:mem:stock-atomic" // 다른 테스트 컨텍스트와 스키마를 공유하지 않도록
+})
+@Transactional
+class AtomicStockOrderServiceTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Test
+    public void 상품주문_취소() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        //when
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+
+        //then
+        assertEquals(8, stockOf(book), "주문 수량만큼 재고가 줄어야 한다.");
+
+        //when
+        orderService.cancelOrder(orderId);
+
+        //then
+        Order getOrder = orderRepository.findOne(orderId);
+        assertEquals(OrderStatus.CANCEL, getOrder.getStatus());
+        assertEquals(10, stockOf(book), "주문이 취소된 상품은 그만큼 재고가 증가해야 한다.");
+    }
+
+    @Test
+    public void 상품주문_재고수량초과() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        //when, then
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(member.getId(), book.getId(), 11));
+        assertEquals(10, stockOf(book), "재고 부족이면 재고가 그대로여야 한다.");
+    }
+
+    private int stockOf(Book book) {
+        return em.createQuery("select i.stockQuantity from Item i where i.id = :id", Integer.class)
+                .setParameter("id", book.getId())
+                .getSingleResult();
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book;
+    }
+}
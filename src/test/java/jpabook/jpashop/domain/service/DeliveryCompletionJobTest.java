@@ -0,0 +1,145 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.DeliveryCompletionJob;
+import jpabook.jpashop.service.DeliveryJobResult;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderChangeTracker;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * 배송완료 처리 작업 테스트 <br/>
+ * 작업은 StatelessSession 으로 청크마다 커밋하므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.delivery.complete-job.chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:delivery-job"
+})
+class DeliveryCompletionJobTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    DeliveryCompletionJob deliveryCompletionJob;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+    @SpyBean
+    OrderChangeTracker orderChangeTracker;
+
+    @Test
+    public void 우편번호로_배송완료_처리() throws Exception {
+        //given
+        Long memberId = createMember("배송회원1", "99999");
+        Long otherMemberId = createMember("배송회원2", "11111");
+        Long itemId = createBook("배송 JPA", 100);
+        Long orderId1 = orderService.order(memberId, itemId, 1);
+        Long orderId2 = orderService.order(memberId, itemId, 1);
+        Long orderId3 = orderService.order(memberId, itemId, 1);
+        Long cancelledOrderId = orderService.order(memberId, itemId, 1);
+        orderService.cancelOrder(cancelledOrderId);
+        Long otherOrderId = orderService.order(otherMemberId, itemId, 1);
+
+        //when
+        DeliveryJobResult result = deliveryCompletionJob.run("99999", null);
+
+        //then
+        assertEquals(3, result.getUpdatedCount(), "우편번호가 같은 주문 상태의 배송만 배송완료로 바뀐다. (청크 2건씩)");
+        assertEquals(Arrays.asList(DeliveryStatus.COMP, DeliveryStatus.COMP, DeliveryStatus.COMP, DeliveryStatus.READY, DeliveryStatus.READY),
+                deliveryStatuses(Arrays.asList(orderId1, orderId2, orderId3, cancelledOrderId, otherOrderId)));
+
+        //when - 새 주문 후 같은 조건으로 다시 실행
+        Long orderId4 = orderService.order(memberId, itemId, 1);
+        DeliveryJobResult rerun = deliveryCompletionJob.run("99999", null);
+
+        //then
+        assertFalse(rerun.isResumed());
+        assertEquals(1, rerun.getUpdatedCount(), "완료된 작업을 다시 실행하면 그 사이 생긴 배송을 처리한다.");
+        assertEquals(1, rerun.getTotalUpdatedCount());
+        assertEquals(Arrays.asList(DeliveryStatus.COMP), deliveryStatuses(Arrays.asList(orderId4)));
+    }
+
+    @Test
+    public void 조건없는_배송완료_처리_거절() throws Exception {
+        //when, then - 조건이 없으면 전체 배송이 배송완료되므로 거절한다.
+        assertThrows(IllegalArgumentException.class, () -> deliveryCompletionJob.run(null, null));
+        assertThrows(IllegalArgumentException.class, () -> deliveryCompletionJob.run(" ", null));
+        //작업 이름 길이를 넘는 우편번호
+        assertThrows(IllegalArgumentException.class, () -> deliveryCompletionJob.run("1".repeat(300), null));
+    }
+
+    @Test
+    public void 중단된_작업_이어서_처리() throws Exception {
+        //given
+        Long memberId = createMember("배송회원3", "88888");
+        Long itemId = createBook("배송 JPA2", 100);
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(orderService.order(memberId, itemId, 1));
+        }
+        doThrow(new IllegalStateException("작업 중단")).doCallRealMethod().when(orderChangeTracker).markChanged(); // 첫 청크 커밋 직후 실패
+
+        //when
+        assertThrows(IllegalStateException.class, () -> deliveryCompletionJob.run("88888", null));
+
+        //then - 첫 청크(2건)만 반영
+        assertEquals(Arrays.asList(DeliveryStatus.COMP, DeliveryStatus.COMP, DeliveryStatus.READY, DeliveryStatus.READY, DeliveryStatus.READY),
+                deliveryStatuses(orderIds));
+
+        //when - 같은 조건으로 다시 실행
+        DeliveryJobResult resumed = deliveryCompletionJob.run("88888", null);
+
+        //then
+        assertTrue(resumed.isResumed(), "진행 기록의 마지막 delivery_id 다음부터 이어서 처리한다.");
+        assertEquals(3, resumed.getUpdatedCount());
+        assertEquals(5, resumed.getTotalUpdatedCount());
+        assertEquals(Collections.nCopies(5, DeliveryStatus.COMP), deliveryStatuses(orderIds));
+    }
+
+    private List<DeliveryStatus> deliveryStatuses(List<Long> orderIds) {
+        return em.createQuery("select d.status from Order o join o.delivery d where o.id in :orderIds order by o.id", DeliveryStatus.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    private Long createMember(String name, String zipcode) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", zipcode));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
@@ -0,0 +1,120 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.IdempotencyKeyMismatchException;
+import jpabook.jpashop.service.IdempotentOrderService;
+import jpabook.jpashop.service.OrderBatcher;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertNotEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+@SpringBootTest
+@Transactional
+class IdempotentOrderServiceTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired IdempotentOrderService idempotentOrderService;
+    @Autowired OrderService orderService;
+    @Autowired OrderBatcher orderBatcher;
+
+    @Test
+    public void 같은_키로_재시도하면_주문하지_않는다() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook(10);
+
+        //when
+        Long orderId = idempotentOrderService.order("retry-key-1", member.getId(), book.getId(), 2);
+        Long retriedOrderId = idempotentOrderService.order("retry-key-1", member.getId(), book.getId(), 2);
+        Long otherOrderId = idempotentOrderService.order("retry-key-2", member.getId(), book.getId(), 2);
+
+        //then
+        assertEquals("같은 키는 처음 주문의 id를 돌려준다.", orderId, retriedOrderId);
+        assertNotEquals("다른 키는 새로 주문한다.", orderId, otherOrderId);
+        assertEquals("재고는 키마다 한번만 줄어야 한다.", 6, book.getStockQuantity());
+    }
+
+    @Test
+    public void 캐시에_없는_키는_저장된_주문으로_확인한다() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook(10);
+        Long orderId = idempotentOrderService.order("retry-key-3", member.getId(), book.getId(), 2);
+
+        //when - 재시작 등으로 메모리 캐시가 비어있는 경우
+        IdempotentOrderService restarted = new IdempotentOrderService(orderService, orderBatcher, 10, 24);
+        Long retriedOrderId = restarted.order("retry-key-3", member.getId(), book.getId(), 2);
+
+        //then
+        assertEquals("저장된 멱등키의 주문 id를 돌려준다.", orderId, retriedOrderId);
+        assertEquals("재고는 한번만 줄어야 한다.", 8, book.getStockQuantity());
+    }
+
+    @Test
+    public void 같은_키로_다른_주문을_요청하면_거절한다() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook(10);
+        Long orderId = idempotentOrderService.order("retry-key-4", member.getId(), book.getId(), 2);
+
+        //when, then - 메모리 캐시, 저장된 키 모두 요청 내용을 확인한다.
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotentOrderService.order("retry-key-4", member.getId(), book.getId(), 3));
+        IdempotentOrderService restarted = new IdempotentOrderService(orderService, orderBatcher, 10, 24);
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> restarted.order("retry-key-4", member.getId(), book.getId(), 3));
+        assertEquals("같은 내용의 재시도는 처음 주문의 id를 돌려준다.", orderId,
+                restarted.order("retry-key-4", member.getId(), book.getId(), 2));
+        assertEquals("재고는 한번만 줄어야 한다.", 8, book.getStockQuantity());
+    }
+
+    @Test
+    public void 보관_기간이_지난_키_삭제() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook(10);
+        idempotentOrderService.order("retry-key-5", member.getId(), book.getId(), 1);
+
+        //when
+        int deleted = orderService.deleteIdempotencyKeys(LocalDateTime.now().plusMinutes(1));
+
+        //then
+        assertTrue("기준 시각 이전에 저장된 키가 삭제되어야 한다.", deleted >= 1);
+        Long remaining = em.createQuery("select count(k) from IdempotencyKey k where k.key = :key", Long.class)
+                .setParameter("key", "retry-key-5")
+                .getSingleResult();
+        assertEquals("삭제된 키는 남아있지 않다.", 0L, remaining);
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+
+    private Book createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book;
+    }
+}
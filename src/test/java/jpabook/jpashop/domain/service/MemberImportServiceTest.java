@@ -0,0 +1,99 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.service.MemberImportResult;
+import jpabook.jpashop.service.MemberImportService;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 회원 일괄 등록 테스트 (묶음 크기 2 -> 묶음 사이의 중복은 DB 조회로 걸러진다)
+ */
+@SpringBootTest(properties = {
+        "jpashop.member.import.batch-size=2",
+        "spring.datasource.url=jdbc:h2:mem:member-import"
+})
+@Transactional
+class MemberImportServiceTest {
+
+    @Autowired
+    MemberImportService memberImportService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void CSV_일괄등록() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("import-exist");
+        memberService.join(member);
+        String csv = "name,city,street,zipcode\n" +
+                "import1,서울,강가,12345\n" +
+                "import2\n" +
+                "import1,부산,해변,54321\n" + // 앞 묶음과 중복
+                ",서울,강가,12345\n" + // 이름 없음
+                "\n" +
+                "import-exist\n"; // 이미 가입된 이름
+
+        //when
+        MemberImportResult result = memberImportService.importMembers(new StringReader(csv), MemberImportService.Format.CSV);
+
+        //then
+        assertEquals(5, result.getTotalRows());
+        assertEquals(2, result.getImportedCount());
+        assertEquals(3, result.getFailedCount());
+        assertEquals(Arrays.asList(4L, 5L, 7L), result.getErrors().stream()
+                .map(MemberImportResult.RowError::getLine)
+                .sorted()
+                .collect(Collectors.toList()), "실패한 행의 줄 번호");
+        assertEquals("서울", memberRepository.findByName("import1").get(0).getAddress().getCity());
+        assertTrue(memberRepository.existsByName("import2"));
+    }
+
+    @Test
+    public void 헤더_없는_CSV의_첫_행() throws Exception {
+        //given - name 으로 시작하는 회원 이름
+        String csv = "Namely,서울,강가,12345\n" +
+                "import3\n";
+
+        //when
+        MemberImportResult result = memberImportService.importMembers(new StringReader(csv), MemberImportService.Format.CSV);
+
+        //then
+        assertEquals(2, result.getTotalRows());
+        assertEquals(2, result.getImportedCount(), "헤더가 아닌 첫 행도 등록되어야 한다.");
+        assertTrue(memberRepository.existsByName("Namely"));
+    }
+
+    @Test
+    public void NDJSON_일괄등록() throws Exception {
+        //given
+        String ndjson = "{\"name\":\"import-json1\",\"city\":\"서울\"}\n" +
+                "{\"name\":\n" + // 잘못된 형식
+                "{\"name\":\"import-json2\"}\n";
+
+        //when
+        MemberImportResult result = memberImportService.importMembers(new StringReader(ndjson), MemberImportService.Format.NDJSON);
+
+        //then
+        assertEquals(2, result.getImportedCount());
+        assertEquals(1, result.getFailedCount());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        List<Member> members = memberRepository.findByName("import-json1");
+        assertEquals("서울", members.get(0).getAddress().getCity());
+    }
+}
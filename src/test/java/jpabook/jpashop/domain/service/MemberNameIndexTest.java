@@ -0,0 +1,83 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.repository.MemberEmRepository;
+import jpabook.jpashop.service.MemberNameIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 회원 이름 접두어 색인 테스트 (트랜잭션 밖 -> 즉시 반영)
+ */
+class MemberNameIndexTest {
+
+    MemberNameIndex memberNameIndex = new MemberNameIndex(null);
+
+    @Test
+    public void 접두어_검색() throws Exception {
+        //given
+        memberNameIndex.put(3L, "userB");
+        memberNameIndex.put(1L, "UserA");
+        memberNameIndex.put(2L, "userA");
+        memberNameIndex.put(4L, "admin");
+
+        //when, then - 대소문자 구분 없이 이름 순, 같은 이름은 id 순
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids(memberNameIndex.search("USER", 10)));
+        assertEquals(Arrays.asList(1L, 2L), ids(memberNameIndex.search("user", 2)));
+        assertEquals(Collections.singletonList(4L), ids(memberNameIndex.search("a", 10)));
+        assertEquals(Collections.emptyList(), ids(memberNameIndex.search("x", 10)));
+    }
+
+    @Test
+    public void 이름_변경() throws Exception {
+        //given
+        memberNameIndex.put(1L, "userA");
+
+        //when
+        memberNameIndex.put(1L, "memberA");
+
+        //then
+        assertEquals(Collections.emptyList(), ids(memberNameIndex.search("user", 10)), "변경 전 이름으로는 검색되지 않는다.");
+        assertEquals("memberA", memberNameIndex.search("mem", 10).get(0).getName());
+    }
+
+    @Test
+    public void 같은_이름은_id_숫자_순() throws Exception {
+        //given
+        memberNameIndex.put(10L, "userA");
+        memberNameIndex.put(2L, "userA");
+
+        //when, then - 문자열 순이면 10이 2보다 앞선다.
+        assertEquals(Arrays.asList(2L, 10L), ids(memberNameIndex.search("user", 10)));
+    }
+
+    @Test
+    public void 적재중_변경된_이름은_덮어쓰지_않는다() throws Exception {
+        //given - 적재 조회 이후 커밋된 이름 변경
+        MemberEmRepository memberEmRepository = mock(MemberEmRepository.class);
+        when(memberEmRepository.findNamesAfter(anyLong(), anyInt()))
+                .thenReturn(Collections.singletonList(new Object[]{1L, "userA"}));
+        MemberNameIndex warmingIndex = new MemberNameIndex(memberEmRepository);
+        warmingIndex.put(1L, "memberA");
+
+        //when
+        warmingIndex.warmUp();
+
+        //then
+        assertEquals(Collections.emptyList(), ids(warmingIndex.search("user", 10)), "적재된 이전 이름으로 되돌아가지 않는다.");
+        assertEquals(Collections.singletonList(1L), ids(warmingIndex.search("mem", 10)));
+    }
+
+    private List<Long> ids(List<MemberNameIndex.Match> matches) {
+        return matches.stream().map(MemberNameIndex.Match::getId).collect(Collectors.toList());
+    }
+}
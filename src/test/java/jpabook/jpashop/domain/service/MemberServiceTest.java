@@ -9,6 +9,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 @SpringBootTest
 @Transactional
 class MemberServiceTest {
@@ -16,6 +19,8 @@ class MemberServiceTest {
     MemberService memberService;
     @Autowired
     MemberEmRepository memberRepository;
+    @PersistenceContext
+    EntityManager em;
 
     @Test
     public void 회원가입() throws Exception {
@@ -23,8 +28,8 @@ class MemberServiceTest {
         Member member = new Member();
         member.setName("yoo");
 
-        //when - persist로 인해 1차캐시에 등록 & flush하지 않았으므로 insert문이 날라가지 않는다.
-        Long saveId = memberService.join(member); // select쿼리 발생 이유는 join메소드에서 저장직전 name중복여부를 select쿼리로 체킹하기때문.
+        //when - persist로 인해 1차캐시에 등록 & 제약조건(uk_member_name) 확인을 위해 insert문을 바로 flush한다.
+        Long saveId = memberService.join(member); // 블룸 필터에 있을 수도 있는 이름이면 저장직전 name중복여부를 select쿼리로 체킹한다.
 
         //then - 1차캐시로부터 객체를 반환받으므로 동일한 객체임을 보장받는다.
         Assertions.assertEquals(member, memberRepository.findOne(saveId));
@@ -50,4 +55,17 @@ class MemberServiceTest {
         Assertions.fail("중복 회원 예외가 발생해야 한다. 회원 이름이 중복이 아닌지 확인해보자.");
     }
 
+    @Test
+    public void 필터에_없는_중복_회원_예외() throws Exception {
+        //given - 서비스를 거치지 않고 저장된 회원 (다른 인스턴스에서 가입한 경우와 같이 블룸 필터가 모르는 이름)
+        Member member1 = new Member();
+        member1.setName("yoo2");
+        em.persist(member1);
+        Member member2 = new Member();
+        member2.setName("yoo2");
+
+        //when, then - Unique 제약조건이 최종 판정한다.
+        Assertions.assertThrows(IllegalStateException.class, () -> memberService.join(member2));
+    }
+
 }
\ No newline at end of file
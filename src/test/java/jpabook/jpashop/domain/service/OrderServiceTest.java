@@ -1,13 +1,22 @@
 package jpabook.jpashop.domain.service;
 
 import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.MemberOrderStats;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderEventType;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.service.BulkCancelResult;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.OrderLine;
+import jpabook.jpashop.service.OrderResult;
 import jpabook.jpashop.service.OrderService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,8 +25,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.assertj.core.api.Fail.fail;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 
 
@@ -31,6 +45,7 @@ class OrderServiceTest {
     @Autowired
     OrderService orderService;
     @Autowired OrderRepository orderRepository;
+    @Autowired MemberService memberService;
 
     @Test
     public void 상품주문() throws Exception {
@@ -90,6 +105,210 @@ class OrderServiceTest {
 
     }
 
+    @Test
+    public void 장바구니주문() throws Exception {
+        //given
+        Member member = createMember();
+        Book book1 = createBook("시골 JPA", 10000, 10);
+        Book book2 = createBook("시골 스프링", 20000, 10);
+
+        //when - 같은 상품 라인은 수량을 합친다.
+        Long orderId = orderService.orderCart(member.getId(), Arrays.asList(
+                new OrderLine(book2.getId(), 1),
+                new OrderLine(book1.getId(), 2),
+                new OrderLine(book2.getId(), 2)));
+
+        //then
+        Order getOrder = orderRepository.findOne(orderId);
+        assertEquals("주문한 상품 종류 수만큼 주문상품이 생성된다.", 2, getOrder.getOrderItems().size());
+        assertEquals("주문 가격은 라인별 가격 * 수량의 합이다.", 10000 * 2 + 20000 * 3, getOrder.getTotalPrice());
+        assertEquals("주문 수량만큼 재고가 줄어야 한다.", 8, book1.getStockQuantity());
+        assertEquals("합쳐진 주문 수량만큼 재고가 줄어야 한다.", 7, book2.getStockQuantity());
+    }
+
+    @Test
+    public void 장바구니주문_재고수량초과() throws Exception {
+        //given
+        Member member = createMember();
+        Book book1 = createBook("시골 JPA", 10000, 1);
+        Book book2 = createBook("시골 스프링", 20000, 10);
+        Book book3 = createBook("시골 자바", 30000, 1);
+
+        //when
+        NotEnoughStockException e = assertThrows(NotEnoughStockException.class,
+                () -> orderService.orderCart(member.getId(), Arrays.asList(
+                        new OrderLine(book1.getId(), 2),
+                        new OrderLine(book2.getId(), 1),
+                        new OrderLine(book3.getId(), 2))));
+
+        //then
+        assertEquals("재고가 부족한 상품을 모두 알려줘야 한다.", Arrays.asList(book1.getId(), book3.getId()), e.getItemIds());
+    }
+
+    @Test
+    public void 대량주문등록() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 1000);
+        List<OrderCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 250; i++) { // batch 크기(100)보다 많이
+            commands.add(new OrderCommand(member.getId(), Arrays.asList(new OrderLine(book.getId(), 2))));
+        }
+
+        //when
+        int count = orderService.orderBulk(commands);
+
+        //then - 중간에 영속성 컨텍스트를 비우므로 쿼리로 확인
+        Long orderCount = em.createQuery("select count(o) from Order o where o.member.id = :memberId", Long.class)
+                .setParameter("memberId", member.getId())
+                .getSingleResult();
+        Integer stockQuantity = em.createQuery("select i.stockQuantity from Item i where i.id = :itemId", Integer.class)
+                .setParameter("itemId", book.getId())
+                .getSingleResult();
+        assertEquals("모든 주문이 등록되어야 한다.", 250, count);
+        assertEquals("모든 주문이 등록되어야 한다.", 250L, orderCount);
+        assertEquals("주문 수량만큼 재고가 줄어야 한다.", 500, stockQuantity);
+    }
+
+    @Test
+    public void 묶음주문_실패격리() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 3);
+        List<OrderCommand> commands = Arrays.asList(
+                new OrderCommand(member.getId(), Arrays.asList(new OrderLine(book.getId(), 2))),
+                new OrderCommand(member.getId(), Arrays.asList(new OrderLine(book.getId(), 2))), // 재고 부족
+                new OrderCommand(member.getId(), Arrays.asList(new OrderLine(book.getId(), 1))));
+
+        //when
+        List<OrderResult> results = orderService.orderBatch(commands);
+
+        //then - 실패한 주문만 실패하고 나머지는 주문된다.
+        assertEquals("첫번째 주문은 성공", true, results.get(0).isSuccess());
+        assertEquals("두번째 주문은 재고 부족", NotEnoughStockException.class, results.get(1).getError().getClass());
+        assertEquals("세번째 주문은 성공", true, results.get(2).isSuccess());
+        assertEquals("성공한 주문 수량만큼 재고가 줄어야 한다.", 0, book.getStockQuantity());
+    }
+
+    @Test
+    public void 주문일괄취소() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 1);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 2);
+        Long deliveredOrderId = orderService.order(member.getId(), book.getId(), 3);
+        orderRepository.findOne(deliveredOrderId).getDelivery().setStatus(DeliveryStatus.COMP); // 배송완료
+
+        //when
+        BulkCancelResult result = orderService.cancelOrders(Arrays.asList(orderId1, orderId2, deliveredOrderId, -1L));
+
+        //then
+        assertEquals("취소 가능한 주문만 취소된다.", Arrays.asList(orderId1, orderId2), result.getCancelledIds());
+        assertEquals("배송완료된 주문과 없는 주문은 취소하지 못한다.", Arrays.asList(-1L, deliveredOrderId), result.getRejectedIds());
+        em.refresh(book); // 재고는 상품 엔티티가 아니라 update로 복구된다.
+        assertEquals("취소된 주문 수량의 합만큼 재고가 증가해야 한다.", 7, book.getStockQuantity());
+        List<OrderStatus> statuses = em.createQuery("select o.status from Order o where o.id in :ids order by o.id", OrderStatus.class)
+                .setParameter("ids", Arrays.asList(orderId1, orderId2, deliveredOrderId))
+                .getResultList();
+        assertEquals("주문 상태가 일괄 변경되어야 한다.", Arrays.asList(OrderStatus.CANCEL, OrderStatus.CANCEL, OrderStatus.ORDER), statuses);
+    }
+
+    @Test
+    public void 주문일괄취소_검색조건() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+        Long deliveredOrderId = orderService.order(member.getId(), book.getId(), 2);
+        orderRepository.findOne(deliveredOrderId).getDelivery().setStatus(DeliveryStatus.COMP); // 배송완료
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(member.getName());
+
+        //when
+        BulkCancelResult result = orderService.cancelOrders(orderSearch);
+
+        //then
+        assertEquals("취소 가능한 주문만 취소된다.", Arrays.asList(orderId), result.getCancelledIds());
+        assertEquals("검색되었지만 취소하지 못한 주문을 응답한다.", Arrays.asList(deliveredOrderId), result.getRejectedIds());
+        em.refresh(book);
+        assertEquals("취소된 주문 수량만큼 재고가 증가해야 한다.", 8, book.getStockQuantity());
+    }
+
+    @Test
+    public void 주문일괄취소_회원이름_없음() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+
+        //when, then - 조건 없는 일괄 취소는 거절한다.
+        assertThrows(IllegalArgumentException.class, () -> orderService.cancelOrders(new OrderSearch()));
+        assertEquals("주문이 취소되지 않아야 한다.", OrderStatus.ORDER, orderRepository.findOne(orderId).getStatus());
+    }
+
+    @Test
+    public void 주문_취소_이벤트_아웃박스_저장() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        //when
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+        orderService.cancelOrder(orderId);
+
+        //then
+        List<OrderEventType> events = em.createQuery("select o.eventType from OrderOutbox o where o.orderId = :orderId order by o.id", OrderEventType.class)
+                .setParameter("orderId", orderId)
+                .getResultList();
+        assertEquals("주문/취소 트랜잭션에서 이벤트가 함께 저장되어야 한다.",
+                Arrays.asList(OrderEventType.ORDER_CREATED, OrderEventType.ORDER_CANCELLED), events);
+    }
+
+    @Test
+    public void 회원별_주문_통계_증감_및_재구성() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("통계회원");
+        Long memberId = memberService.join(member); // 빈 통계 row 저장
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        //when
+        Long orderId1 = orderService.order(memberId, book.getId(), 2);
+        Long orderId2 = orderService.order(memberId, book.getId(), 3);
+        orderService.cancelOrder(orderId1);
+
+        //then - 같은 트랜잭션(영속성 컨텍스트)에서 바로 조회해도 증감이 반영되어 있어야 한다.
+        MemberOrderStats stats = memberService.findOrderStats(memberId);
+        assertEquals("취소된 주문은 주문 수에서 빠져야 한다.", 1, stats.getOrderCount());
+        assertEquals("취소된 주문 금액은 합계에서 빠져야 한다.", 30000L, stats.getTotalSpend());
+        assertEquals("마지막 주문 일시는 가장 최근 주문이어야 한다.", em.createQuery("select o.orderDate from Order o where o.id = :id", LocalDateTime.class)
+                        .setParameter("id", orderId2)
+                        .getSingleResult(), stats.getLastOrderDate());
+
+        em.createQuery("update MemberOrderStats s set s.orderCount = 99, s.totalSpend = 0").executeUpdate(); // 통계 어긋남
+        memberService.reconcileOrderStats();
+        MemberOrderStats reconciled = memberService.findOrderStats(memberId);
+        assertEquals("재구성하면 주문 테이블과 같아져야 한다.", 1, reconciled.getOrderCount());
+        assertEquals("재구성하면 주문 테이블과 같아져야 한다.", 30000L, reconciled.getTotalSpend());
+    }
+
+    @Test
+    public void 통계_row_없는_회원의_첫_주문() throws Exception {
+        //given - 통계 도입 전에 가입한 회원 (통계 row 없음)
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        //when
+        orderService.order(member.getId(), book.getId(), 2);
+        orderService.order(member.getId(), book.getId(), 1);
+
+        //then
+        MemberOrderStats stats = memberService.findOrderStats(member.getId());
+        assertEquals("첫 주문에서 통계 row를 만들고 이후 주문은 증가시켜야 한다.", 2, stats.getOrderCount());
+        assertEquals("첫 주문에서 통계 row를 만들고 이후 주문은 증가시켜야 한다.", 30000L, stats.getTotalSpend());
+    }
+
     private Member createMember() {
         Member member = new Member();
         member.setName("회원1");
@@ -0,0 +1,136 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.form.BookForm;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.StockReservationEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 재고 예약 방식(jpashop.order.stock-mode=reservation) 주문 테스트 <br/>
+ * 예약은 커밋 이후에 반영되므로 테스트 트랜잭션 없이 실행하고, 반영 주기 대신 flush()를 직접 호출한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.order.stock-mode=reservation",
+        "jpashop.order.reservation.flush-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:stock-reservation"
+})
+class ReservationStockOrderServiceTest {
+
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    StockReservationEngine stockReservationEngine;
+
+    @Test
+    public void 상품주문_취소_반영() throws Exception {
+        //given
+        Long memberId = createMember("예약회원1");
+        Long itemId = createBook("예약 JPA", 10);
+
+        //when
+        Long orderId = orderService.order(memberId, itemId, 2);
+
+        //then
+        assertEquals(10, stockOf(itemId), "반영 전에는 상품 재고가 그대로다.");
+        stockReservationEngine.flush();
+        assertEquals(8, stockOf(itemId), "반영 후에는 주문 수량만큼 재고가 줄어야 한다.");
+
+        //when
+        orderService.cancelOrder(orderId);
+        stockReservationEngine.flush();
+
+        //then
+        assertEquals(10, stockOf(itemId), "주문이 취소된 상품은 그만큼 재고가 증가해야 한다.");
+    }
+
+    @Test
+    public void 상품주문_예약수량초과() throws Exception {
+        //given
+        Long memberId = createMember("예약회원2");
+        Long itemId = createBook("예약 JPA2", 10);
+        orderService.order(memberId, itemId, 6); // 반영 전 예약
+
+        //when, then - 반영되지 않은 예약까지 포함해서 재고를 검사한다.
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(memberId, itemId, 5));
+        orderService.order(memberId, itemId, 4);
+        stockReservationEngine.flush();
+        assertEquals(0, stockOf(itemId));
+    }
+
+    @Test
+    public void 예약중_재고_직접_수정() throws Exception {
+        //given
+        Long memberId = createMember("예약회원3");
+        Long itemId = createBook("예약 JPA3", 50);
+        orderService.order(memberId, itemId, 5); // 반영 전 예약
+
+        //when - 남은 재고(45)가 아니라 입력한 수량(100)이 최종 재고가 되어야 한다.
+        BookForm form = new BookForm();
+        form.setName("예약 JPA3");
+        form.setPrice(10000);
+        form.setStockQuantity(100);
+        itemService.updateItem(itemId, form);
+        stockReservationEngine.flush();
+
+        //then
+        assertEquals(100, stockOf(itemId), "반영되지 않은 예약을 포함한 남은 재고 기준으로 차이를 반영해야 한다.");
+        orderService.order(memberId, itemId, 100);
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(memberId, itemId, 1));
+    }
+
+    @Test
+    public void 예약중_재고_줄이기() throws Exception {
+        //given
+        Long memberId = createMember("예약회원4");
+        Long itemId = createBook("예약 JPA4", 50);
+        orderService.order(memberId, itemId, 5); // 반영 전 예약 (남은 재고 45)
+
+        //when - 남은 재고보다 적게 수정해도 재고 부족 예외 없이 입력한 수량이 된다.
+        BookForm form = new BookForm();
+        form.setName("예약 JPA4");
+        form.setPrice(10000);
+        form.setStockQuantity(10);
+        itemService.updateItem(itemId, form);
+        stockReservationEngine.flush();
+
+        //then
+        assertEquals(10, stockOf(itemId));
+        orderService.order(memberId, itemId, 10);
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(memberId, itemId, 1));
+    }
+
+    private int stockOf(Long itemId) {
+        return itemService.findOne(itemId).getStockQuantity();
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}